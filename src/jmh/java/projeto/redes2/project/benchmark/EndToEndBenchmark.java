@@ -0,0 +1,95 @@
+package projeto.redes2.project.benchmark;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import jakarta.servlet.Filter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import projeto.redes2.project.ProjectApplication;
+
+/**
+ * Whole request path through MockMvc: security filter, controller, service, repository
+ * and Jackson, against the in-memory H2 database of the {@code test} profile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dspring.devtools.restart.enabled=false")
+@Threads(4)
+public class EndToEndBenchmark {
+
+	private ConfigurableApplicationContext context;
+	private MockMvc mvc;
+	private String authorization;
+	private long userId;
+	private long projectId;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		context = new SpringApplicationBuilder(ProjectApplication.class)
+				.web(WebApplicationType.SERVLET)
+				.profiles("test")
+				.properties("server.port=0", "spring.jpa.properties.hibernate.generate_statistics=false")
+				.run();
+		mvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+				.addFilters(context.getBean("springSecurityFilterChain", Filter.class))
+				.build();
+
+		String suffix = UUID.randomUUID().toString().substring(0, 8);
+		JsonNode registered = json(mvc.perform(post("/auth/user").contentType(MediaType.APPLICATION_JSON).content(String.format(
+				"{\"name\":\"bench-%s\",\"age\":30,\"email\":\"bench-%s@mail.com\",\"username\":\"bench-%s\",\"password\":\"bench-password\"}",
+				suffix, suffix, suffix))).andReturn().getResponse().getContentAsString());
+		authorization = "Bearer " + registered.get("token").asText();
+		userId = registered.get("user").get("id").asLong();
+
+		for(int i = 0; i < 50; i++) {
+			JsonNode project = json(mvc.perform(post("/project").header("Authorization", authorization).contentType(MediaType.APPLICATION_JSON)
+					.content(String.format("{\"name\":\"bench-%s-%d\",\"description\":\"benchmark\",\"situation\":true,\"user\":{\"id\":%d}}", suffix, i, userId)))
+					.andReturn().getResponse().getContentAsString());
+			projectId = project.get("id").asLong();
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public int getProject() throws Exception {
+		return mvc.perform(get("/project/{id}", projectId).header("Authorization", authorization)).andReturn().getResponse().getStatus();
+	}
+
+	@Benchmark
+	public int listProjects() throws Exception {
+		return mvc.perform(get("/project/userProjects/{idUser}", userId).header("Authorization", authorization)).andReturn().getResponse().getStatus();
+	}
+
+	private static JsonNode json(String body) throws Exception {
+		return new ObjectMapper().readTree(body);
+	}
+}
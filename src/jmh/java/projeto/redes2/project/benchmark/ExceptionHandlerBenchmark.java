@@ -0,0 +1,91 @@
+package projeto.redes2.project.benchmark;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import projeto.redes2.project.exception.EntityNotFoundInTheAppeal;
+import projeto.redes2.project.exceptionhandler.ApiExceptionHandler;
+import projeto.redes2.project.model.Project;
+
+/**
+ * Cost of an error response: throwing the exception, building the Problem in
+ * {@link ApiExceptionHandler} and writing it as JSON. The validation case resolves
+ * its field messages through the same {@code messages.properties} the application uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.AverageTime, Mode.Throughput })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExceptionHandlerBenchmark {
+
+	private ApiExceptionHandler handler;
+	private WebRequest request;
+	private ObjectWriter writer;
+	private MethodArgumentNotValidException invalid;
+
+	@Setup
+	public void setup() throws Exception {
+		handler = new ApiExceptionHandler();
+		ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+		messageSource.setBasename("messages");
+		ReflectionTestUtils.setField(handler, "messageSource", messageSource);
+		request = new ServletWebRequest(new MockHttpServletRequest("GET", "/project/42"));
+		writer = Jackson2ObjectMapperBuilder.json().build().writer();
+
+		BeanPropertyBindingResult result = new BeanPropertyBindingResult(new Project(), "project");
+		result.rejectValue("name", "NotBlank", new Object[] { new DefaultMessageSourceResolvable(
+				new String[] { "project.name", "name" }, "name") }, "must not be blank");
+		Method add = ExceptionHandlerBenchmark.class.getDeclaredMethod("add", Project.class);
+		invalid = new MethodArgumentNotValidException(new MethodParameter(add, 0), result);
+	}
+
+	@Benchmark
+	public ResponseEntity<?> handle() {
+		return handler.handleEntityNotFoundInTheAppeal(notFound(), request);
+	}
+
+	@Benchmark
+	public byte[] handleAndWrite() throws JsonProcessingException {
+		return writer.writeValueAsBytes(handler.handleEntityNotFoundInTheAppeal(notFound(), request).getBody());
+	}
+
+	@Benchmark
+	public byte[] validationAndWrite() throws Exception {
+		return writer.writeValueAsBytes(handler.handleException(invalid, request).getBody());
+	}
+
+	@SuppressWarnings("unused")
+	private void add(Project project) { }
+
+	private static EntityNotFoundInTheAppeal notFound() {
+		try {
+			throw new EntityNotFoundInTheAppeal("Project with id 42 is not registered.");
+		} catch(EntityNotFoundInTheAppeal e) {
+			return e;
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package projeto.redes2.project.benchmark;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.ReflectionUtils;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import projeto.redes2.project.core.patch.PatchEngine;
+import projeto.redes2.project.model.Project;
+import projeto.redes2.project.model.User;
+
+/**
+ * PATCH merge cost: {@code legacy} is the former updatePartial body (new ObjectMapper,
+ * convertValue and a reflective field lookup per key), {@code engine} is {@link PatchEngine}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PatchBenchmark {
+
+	private final Map<String, Object> patch = Map.of("name", "renamed", "description", "new description", "situation", false);
+
+	private PatchEngine engine;
+	private Project target;
+
+	@Setup
+	public void setup() {
+		engine = new PatchEngine(new ObjectMapper());
+		target = new Project(1L, "project", "description", true, new User(1L, "owner", 30, "owner@mail.com", "owner", "password", "USER", null), null);
+	}
+
+	@Benchmark
+	public Project legacy() {
+		ObjectMapper objMapper = new ObjectMapper();
+		objMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, true);
+		Project projectFields = objMapper.convertValue(patch, Project.class);
+
+		patch.forEach((propertyName, propertyValue) -> {
+			Field field = ReflectionUtils.findField(Project.class, propertyName);
+			field.setAccessible(true);
+			ReflectionUtils.setField(field, target, ReflectionUtils.getField(field, projectFields));
+		});
+		return target;
+	}
+
+	@Benchmark
+	public Project engine() {
+		return engine.merge(patch, target, Project.class);
+	}
+}
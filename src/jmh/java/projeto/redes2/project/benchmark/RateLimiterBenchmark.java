@@ -0,0 +1,101 @@
+package projeto.redes2.project.benchmark;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import projeto.redes2.project.core.ratelimit.RateLimiter;
+import projeto.redes2.project.core.ratelimit.TokenBucket;
+
+/**
+ * Rate limit checks from every core at once. {@code hotKey} puts all threads on the same bucket,
+ * the worst case for the CAS loop; {@code perThreadKey} spreads them like distinct clients.
+ * {@code casBucket} and {@code synchronizedBucket} skip the key lookup and compare one shared
+ * bucket updated with CAS against the same arithmetic under a lock. The limits are
+ * high enough that every request is allowed, so each call is a successful update.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(Threads.MAX)
+public class RateLimiterBenchmark {
+
+	private static final int CAPACITY = 1_000_000_000;
+	private static final Duration PERIOD = Duration.ofSeconds(1);
+
+	private RateLimiter limiter;
+	private TokenBucket bucket;
+	private LockedBucket locked;
+	private final AtomicInteger threads = new AtomicInteger();
+
+	@Setup
+	public void setup() {
+		limiter = new RateLimiter(Duration.ofHours(1), 100_000);
+		bucket = new TokenBucket(CAPACITY, PERIOD, System.nanoTime());
+		locked = new LockedBucket(CAPACITY, PERIOD, System.nanoTime());
+	}
+
+	@State(Scope.Thread)
+	public static class Client {
+
+		String key;
+
+		@Setup
+		public void setup(RateLimiterBenchmark benchmark) {
+			key = "user:" + benchmark.threads.incrementAndGet();
+		}
+	}
+
+	@Benchmark
+	public TokenBucket.Probe hotKey() {
+		return limiter.tryAcquire("user:0", CAPACITY, PERIOD);
+	}
+
+	@Benchmark
+	public TokenBucket.Probe perThreadKey(Client client) {
+		return limiter.tryAcquire(client.key, CAPACITY, PERIOD);
+	}
+
+	@Benchmark
+	public TokenBucket.Probe casBucket() {
+		return bucket.tryConsume(System.nanoTime());
+	}
+
+	@Benchmark
+	public boolean synchronizedBucket() {
+		return locked.tryConsume(System.nanoTime());
+	}
+
+	private static class LockedBucket {
+
+		private final long interval;
+		private final long tolerance;
+		private long fullAt;
+
+		LockedBucket(int capacity, Duration period, long now) {
+			this.interval = Math.max(1, period.toNanos() / capacity);
+			this.tolerance = interval * capacity;
+			this.fullAt = now;
+		}
+
+		synchronized boolean tryConsume(long now) {
+			long base = Math.max(fullAt, now);
+			if(base + interval - now > tolerance) return false;
+			fullAt = base + interval;
+			return true;
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package projeto.redes2.project.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import projeto.redes2.project.dto.ProjectDTO;
+import projeto.redes2.project.dto.UserDTO;
+
+/**
+ * Serialization CPU of a project list page and of a user in each negotiated format, plain and
+ * gzipped as {@code server.compression} does above its threshold. The bytes on the wire of each
+ * combination are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseFormatBenchmark {
+
+	@Param({ "json", "cbor", "smile" })
+	private String format;
+
+	//Tamanho padrao de pagina e o maximo
+	@Param({ "50", "500" })
+	private int size;
+
+	private ObjectWriter projectsWriter;
+	private ObjectWriter userWriter;
+	private List<ProjectDTO> projects;
+	private UserDTO user;
+
+	@Setup
+	public void setup() throws IOException {
+		//Mesmo builder dos conversores de MessageFormatConfig
+		Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+		ObjectMapper mapper = switch(format) {
+			case "cbor" -> builder.factory(new CBORFactory()).build();
+			case "smile" -> builder.factory(new SmileFactory()).build();
+			default -> builder.build();
+		};
+		projectsWriter = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, ProjectDTO.class));
+		userWriter = mapper.writerFor(UserDTO.class);
+		user = new UserDTO(1L, "owner", 30, "owner@mail.com", "owner", 0L);
+		projects = new ArrayList<>();
+		for(long i = 0; i < size; i++) {
+			projects.add(new ProjectDTO(1000 + i, "project-" + i, "description of project " + i, i % 2 == 0, 1L, 0L));
+		}
+		System.out.printf("%n%s size=%d: projects %d bytes (%d gzip), user %d bytes%n", format, size,
+				projects().length, projectsGzip().length, user().length);
+	}
+
+	@Benchmark
+	public byte[] projects() throws IOException {
+		return projectsWriter.writeValueAsBytes(projects);
+	}
+
+	@Benchmark
+	public byte[] projectsGzip() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(8192);
+		try(GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+			projectsWriter.writeValue(gzip, projects);
+		}
+		return bytes.toByteArray();
+	}
+
+	@Benchmark
+	public byte[] user() throws IOException {
+		return userWriter.writeValueAsBytes(user);
+	}
+}
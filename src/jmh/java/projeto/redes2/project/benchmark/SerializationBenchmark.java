@@ -0,0 +1,75 @@
+package projeto.redes2.project.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import projeto.redes2.project.dto.ProjectDTO;
+import projeto.redes2.project.dto.UserDTO;
+import projeto.redes2.project.model.Project;
+import projeto.redes2.project.model.User;
+
+/**
+ * Entity to DTO mapping plus Jackson serialization, as done for every response body.
+ * {@code size} is the number of projects in a list response; {@code mapper} compares the
+ * plain Spring Boot mapper with the one the application builds, which adds Blackbird.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+	@Param({ "1", "50", "500" })
+	private int size;
+
+	@Param({ "reflection", "blackbird" })
+	private String mapper;
+
+	private ObjectWriter userWriter;
+	private ObjectWriter projectsWriter;
+	private User user;
+	private List<Project> projects;
+
+	@Setup
+	public void setup() {
+		//Mesma configuracao base do ObjectMapper do Spring Boot
+		Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+		if(mapper.equals("blackbird")) builder.modulesToInstall(new BlackbirdModule());
+		ObjectMapper objectMapper = builder.build();
+		userWriter = objectMapper.writerFor(UserDTO.class);
+		projectsWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, ProjectDTO.class));
+		user = new User(1L, "owner", 30, "owner@mail.com", "owner", "password", "USER", null);
+		projects = new ArrayList<>();
+		for(long i = 0; i < size; i++) {
+			projects.add(new Project(i, "project-" + i, "description of project " + i, i % 2 == 0, user, null));
+		}
+	}
+
+	@Benchmark
+	public byte[] user() throws JsonProcessingException {
+		return userWriter.writeValueAsBytes(UserDTO.fromEntity(user));
+	}
+
+	@Benchmark
+	public byte[] projects() throws JsonProcessingException {
+		return projectsWriter.writeValueAsBytes(projects.stream().map(ProjectDTO::fromEntity).toList());
+	}
+}
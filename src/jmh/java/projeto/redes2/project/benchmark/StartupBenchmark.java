@@ -0,0 +1,134 @@
+package projeto.redes2.project.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+import projeto.redes2.project.ProjectApplication;
+
+/**
+ * Cold start of each startup mode: time from launching the JVM to the first answered request,
+ * and the resident memory at that point. Runs against the layout left by
+ * {@code mvn -Pfast-start package} (extracted jar, {@code app.jsa} from the training run):
+ *
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:java -Dexec.mainClass=projeto.redes2.project.benchmark.StartupBenchmark \
+ *     -Dexec.args="target/fast-start 5"
+ * </pre>
+ *
+ * Arguments are the extracted directory and the runs per mode; the rest is passed to the
+ * application (a datasource, for example). {@code -Dstartup.classpath} adds entries after the
+ * jar, such as a JDBC driver that is not packaged. The first request is a failed login, which
+ * goes through security, the controller and the database. RSS is read from {@code /proc}.
+ */
+public class StartupBenchmark {
+
+	private static final String FAST_START = "--spring.profiles.active=fast-start";
+	private static final String AOT = "-Dspring.aot.enabled=true";
+
+	private static final List<Mode> MODES = List.of(
+			new Mode("default", List.of(), List.of()),
+			new Mode("lazy", List.of(), List.of(FAST_START)),
+			new Mode("lazy+aot", List.of(AOT), List.of(FAST_START)),
+			new Mode("lazy+aot+cds", List.of(AOT, "-XX:SharedArchiveFile=app.jsa"), List.of(FAST_START)));
+
+	public static void main(String[] args) throws Exception {
+		Path directory = Path.of(args.length > 0 ? args[0] : "target/fast-start").toAbsolutePath();
+		int runs = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+		List<String> applicationArgs = args.length > 2 ? Arrays.asList(args).subList(2, args.length) : List.of();
+		String classpath = applicationJar(directory) + extraClasspath();
+
+		HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+		System.out.printf("%-14s %18s %10s%n", "mode", "first request ms", "rss MB");
+		for(Mode mode : MODES) {
+			long[] firstRequest = new long[runs];
+			long[] rss = new long[runs];
+			for(int run = 0; run < runs; run++) {
+				long[] sample = start(http, directory, classpath, mode, applicationArgs);
+				firstRequest[run] = sample[0];
+				rss[run] = sample[1];
+			}
+			System.out.printf("%-14s %18d %10d%n", mode.name(), median(firstRequest), median(rss) / 1024);
+		}
+	}
+
+	//{milissegundos ate a primeira resposta, RSS em KB}
+	private static long[] start(HttpClient http, Path directory, String classpath, Mode mode, List<String> applicationArgs) throws Exception {
+		int port = freePort();
+		List<String> command = new ArrayList<>(List.of(Path.of(System.getProperty("java.home"), "bin", "java").toString()));
+		command.addAll(mode.jvmArgs());
+		command.addAll(List.of("-cp", classpath, ProjectApplication.class.getName(), "--server.port=" + port));
+		command.addAll(mode.applicationArgs());
+		command.addAll(applicationArgs);
+
+		HttpRequest login = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/auth/login"))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"startup@mail.com\",\"password\":\"startup-password\"}"))
+				.build();
+		long start = System.nanoTime();
+		Process process = new ProcessBuilder(command).directory(directory.toFile())
+				.redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+		try {
+			while(true) {
+				if(!process.isAlive()) throw new IllegalStateException(mode.name() + " exited with " + process.exitValue());
+				try {
+					int status = http.send(login, HttpResponse.BodyHandlers.discarding()).statusCode();
+					if(status >= 500) throw new IllegalStateException(mode.name() + " answered " + status);
+					return new long[] { (System.nanoTime() - start) / 1_000_000, rssKb(process.pid()) };
+				} catch(IOException e) {
+					Thread.sleep(10); //ainda nao esta ouvindo
+				}
+			}
+		} finally {
+			process.destroy();
+			process.waitFor();
+		}
+	}
+
+	private static String applicationJar(Path directory) throws IOException {
+		try(Stream<Path> files = Files.list(directory)) {
+			return files.filter(file -> file.toString().endsWith(".jar")).findFirst()
+					.orElseThrow(() -> new IllegalStateException("No application jar in " + directory + ", run mvn -Pfast-start package"))
+					.toString();
+		}
+	}
+
+	//Entradas so depois do jar: o CDS aceita classpath estendido em relacao ao do treino
+	private static String extraClasspath() {
+		String extra = System.getProperty("startup.classpath", "");
+		return extra.isBlank() ? "" : File.pathSeparator + extra;
+	}
+
+	private static long rssKb(long pid) throws IOException {
+		Path status = Path.of("/proc", String.valueOf(pid), "status");
+		if(!Files.exists(status)) return -1;
+		for(String line : Files.readAllLines(status)) {
+			if(line.startsWith("VmRSS:")) return Long.parseLong(line.replaceAll("\\D", ""));
+		}
+		return -1;
+	}
+
+	private static int freePort() throws IOException {
+		try(ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+
+	private static long median(long[] values) {
+		long[] sorted = values.clone();
+		Arrays.sort(sorted);
+		return sorted[sorted.length / 2];
+	}
+
+	private record Mode(String name, List<String> jvmArgs, List<String> applicationArgs) { }
+}
@@ -0,0 +1,138 @@
+package projeto.redes2.project.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Closed-loop load test against a running instance, used to compare the default
+ * Tomcat threads with the {@code virtual-threads} profile. Every client shares one user,
+ * so the per-user rate limit would answer most calls with 429 and the run would measure
+ * the limiter; start the application once per mode (Java 21+ for the virtual one) with
+ * it turned off:
+ *
+ * <pre>
+ * java -jar target/personal-project-0.0.1-SNAPSHOT.jar --api.security.rate-limit.enabled=false [--spring.profiles.active=virtual-threads]
+ * </pre>
+ *
+ * then run:
+ *
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:java -Dexec.mainClass=projeto.redes2.project.benchmark.ThroughputLoadTest \
+ *     -Dexec.args="http://localhost:8080 200 30"
+ * </pre>
+ *
+ * Arguments are the base URL, the number of concurrent clients and the duration in
+ * seconds. Every client alternates GET /project/{id} and GET /project/userProjects/{idUser},
+ * both authenticated, so each call goes through SecurityFilter and MySQL. Each run registers
+ * a new user, so the limit on POST /auth/user also stops repeated runs when it is on. A run
+ * that still gets a 429 fails instead of reporting a throughput.
+ */
+public class ThroughputLoadTest {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	public static void main(String[] args) throws Exception {
+		String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+		int clients = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+		Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 30);
+
+		HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+		String suffix = UUID.randomUUID().toString().substring(0, 8);
+		JsonNode registered = post(http, baseUrl + "/auth/user", null, String.format(
+				"{\"name\":\"load-%s\",\"age\":30,\"email\":\"load-%s@mail.com\",\"username\":\"load-%s\",\"password\":\"load-password\"}",
+				suffix, suffix, suffix));
+		String token = registered.get("token").asText();
+		long userId = registered.get("user").get("id").asLong();
+
+		List<Long> projectIds = new ArrayList<>();
+		for(int i = 0; i < 20; i++) {
+			JsonNode project = post(http, baseUrl + "/project", token, String.format(
+					"{\"name\":\"load-%s-%d\",\"description\":\"load test\",\"situation\":true,\"user\":{\"id\":%d}}", suffix, i, userId));
+			projectIds.add(project.get("id").asLong());
+		}
+
+		long deadline = System.nanoTime() + duration.toNanos();
+		ExecutorService executor = Executors.newFixedThreadPool(clients);
+		LongAdder rateLimited = new LongAdder();
+		List<Future<long[]>> results = new ArrayList<>();
+		for(int c = 0; c < clients; c++) {
+			results.add(executor.submit(() -> {
+				List<Long> latencies = new ArrayList<>();
+				long errors = 0;
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				while(System.nanoTime() < deadline) {
+					String path = random.nextBoolean()
+							? "/project/" + projectIds.get(random.nextInt(projectIds.size()))
+							: "/project/userProjects/" + userId;
+					HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+							.header("Authorization", "Bearer " + token).GET().build();
+					long start = System.nanoTime();
+					try {
+						int status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+						if(status == 429) rateLimited.increment();
+						else if(status != 200) errors++;
+					} catch(Exception e) {
+						errors++;
+					}
+					latencies.add(System.nanoTime() - start);
+				}
+				long[] out = new long[latencies.size() + 1];
+				out[0] = errors;
+				for(int i = 0; i < latencies.size(); i++) out[i + 1] = latencies.get(i);
+				return out;
+			}));
+		}
+
+		long errors = 0;
+		List<Long> all = new ArrayList<>();
+		for(Future<long[]> result : results) {
+			long[] out = result.get();
+			errors += out[0];
+			for(int i = 1; i < out.length; i++) all.add(out[i]);
+		}
+		executor.shutdown();
+		if(rateLimited.sum() > 0) {
+			throw new IllegalStateException(rateLimited.sum() + " of " + all.size()
+					+ " requests answered 429; restart the application with --api.security.rate-limit.enabled=false");
+		}
+
+		long[] sorted = all.stream().mapToLong(Long::longValue).toArray();
+		Arrays.sort(sorted);
+		System.out.printf("clients=%d duration=%ds requests=%d errors=%d throughput=%.1f req/s%n",
+				clients, duration.toSeconds(), sorted.length, errors, sorted.length / (double) duration.toSeconds());
+		System.out.printf("latency p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms%n",
+				percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99), percentile(sorted, 1.0));
+	}
+
+	private static JsonNode post(HttpClient http, String url, String token, String body) throws Exception {
+		HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(body));
+		if(token != null) request.header("Authorization", "Bearer " + token);
+		HttpResponse<String> response = http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+		if(response.statusCode() >= 300) {
+			throw new IllegalStateException(url + " answered " + response.statusCode() + ": " + response.body());
+		}
+		return MAPPER.readTree(response.body());
+	}
+
+	private static double percentile(long[] sorted, double percentile) {
+		if(sorted.length == 0) return 0;
+		int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+		return sorted[Math.max(0, index)] / 1_000_000.0;
+	}
+}
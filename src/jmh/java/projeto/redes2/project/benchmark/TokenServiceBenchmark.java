@@ -0,0 +1,82 @@
+package projeto.redes2.project.benchmark;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import projeto.redes2.project.model.User;
+import projeto.redes2.project.security.TokenProperties;
+import projeto.redes2.project.security.TokenService;
+
+/**
+ * Per-call cost of signing and verifying a token: {@code legacy*} rebuilds the
+ * algorithm and verifier on every call, as TokenService used to, {@code current*}
+ * goes through the prebuilt key ring.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class TokenServiceBenchmark {
+
+	private static final String SECRET = "benchmark-secret";
+
+	private TokenService tokenService;
+	private User user;
+	private String token;
+
+	@Setup
+	public void setup() {
+		tokenService = new TokenService(new TokenProperties(SECRET, "default", Map.of(), Duration.ofMinutes(15), Duration.ofDays(30)), new SimpleMeterRegistry());
+		user = new User(1L, "benchmark", 30, "benchmark@mail.com", "benchmark", "password", "USER", null);
+		token = tokenService.generateToken(user);
+	}
+
+	@Benchmark
+	public String legacyGenerate() {
+		Algorithm algorithm = Algorithm.HMAC256(SECRET);
+		return JWT.create()
+				.withIssuer("login-auth-api")
+				.withSubject(user.getEmail())
+				.withExpiresAt(LocalDateTime.now().plusHours(2).toInstant(ZoneOffset.of("-03:00")))
+				.sign(algorithm);
+	}
+
+	@Benchmark
+	public String legacyValidate() {
+		Algorithm algorithm = Algorithm.HMAC256(SECRET);
+		return JWT.require(algorithm)
+				.withIssuer("login-auth-api")
+				.build()
+				.verify(token)
+				.getSubject();
+	}
+
+	@Benchmark
+	public String currentGenerate() {
+		return tokenService.generateToken(user);
+	}
+
+	@Benchmark
+	public String currentValidate() {
+		return tokenService.validateToken(token);
+	}
+}
@@ -0,0 +1,55 @@
+package projeto.redes2.project.config;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import projeto.redes2.project.core.jdbc.AdmissionControlledDataSource;
+
+@Configuration
+@ConditionalOnProperty(name = "api.datasource.admission.enabled", havingValue = "true")
+public class AdmissionGateConfig {
+
+    //Hikari so aplica o tamanho padrao quando o pool inicia; antes disso getMaximumPoolSize() devolve -1
+    private static final int HIKARI_DEFAULT_POOL_SIZE = 10;
+
+    @Bean
+    static BeanPostProcessor admissionGate(Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+        Duration timeout = environment.getProperty("api.datasource.admission.timeout", Duration.class, Duration.ofSeconds(30));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                HikariDataSource hikari = hikari(bean);
+                if (hikari == null) {
+                    return bean;
+                }
+                int poolSize = hikari.getMaximumPoolSize() > 0 ? hikari.getMaximumPoolSize() : HIKARI_DEFAULT_POOL_SIZE;
+                var gate = new AdmissionControlledDataSource((DataSource) bean, poolSize, timeout);
+                meterRegistry.ifAvailable(registry -> {
+                    Gauge.builder("jdbc.admission.available", gate, AdmissionControlledDataSource::availablePermits).register(registry);
+                    Gauge.builder("jdbc.admission.queued", gate, AdmissionControlledDataSource::queueLength).register(registry);
+                });
+                return (DataSource) gate;
+            }
+        };
+    }
+
+    //O DataSource pode ja ter sido embrulhado, por exemplo pelo MeteredDataSource
+    private static HikariDataSource hikari(Object bean) {
+        try {
+            return bean instanceof DataSource dataSource && dataSource.isWrapperFor(HikariDataSource.class)
+                    ? dataSource.unwrap(HikariDataSource.class)
+                    : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package projeto.redes2.project.config;
+
+import java.time.Duration;
+import java.util.function.UnaryOperator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import io.micrometer.core.instrument.MeterRegistry;
+import projeto.redes2.project.core.cache.TwoTierCache;
+import projeto.redes2.project.dto.ProjectDTO;
+import projeto.redes2.project.model.User;
+
+@Configuration
+public class EntityCacheConfig {
+
+    @Bean
+    TwoTierCache<User> userCache(MeterRegistry meterRegistry,
+            @Value("${api.cache.users.maximum-size:10000}") long maximumSize,
+            @Value("${api.cache.users.time-to-live:5m}") Duration timeToLive,
+            @Value("${api.datasource.replica.max-lag:5s}") Duration readYourWrites) {
+        UnaryOperator<User> copier = user -> new User(user.getId(), user.getName(), user.getAge(), user.getEmail(),
+                user.getUsername(), user.getPassword(), user.getRole(), user.getVersion());
+        return new TwoTierCache<>("users", User::getId, copier, maximumSize, timeToLive, readYourWrites, meterRegistry);
+    }
+
+    //ProjectDTO e imutavel, nao precisa de copia
+    @Bean
+    TwoTierCache<ProjectDTO> projectCache(MeterRegistry meterRegistry,
+            @Value("${api.cache.projects.maximum-size:50000}") long maximumSize,
+            @Value("${api.cache.projects.time-to-live:5m}") Duration timeToLive,
+            @Value("${api.datasource.replica.max-lag:5s}") Duration readYourWrites) {
+        return new TwoTierCache<>("projects", ProjectDTO::id, UnaryOperator.identity(), maximumSize, timeToLive, readYourWrites, meterRegistry);
+    }
+}
@@ -0,0 +1,39 @@
+package projeto.redes2.project.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+/**
+ * CBOR and Smile for clients that ask for them in {@code Accept}; JSON stays the default.
+ * Spring MVC would register both converters on its own, but with a plain mapper: these are
+ * built from the builder of Spring Boot, so {@code spring.jackson.*} applies to every format.
+ * As beans they take the place of the defaults, after the JSON converter.
+ *
+ * The Blackbird module replaces reflective property access with generated accessors. As a
+ * {@code Module} bean it is installed by that same builder, so the JSON, CBOR and Smile
+ * mappers all get it and keep the {@code spring.jackson.*} settings.
+ */
+@Configuration
+public class MessageFormatConfig {
+
+    @Bean
+    BlackbirdModule blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    @Bean
+    MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
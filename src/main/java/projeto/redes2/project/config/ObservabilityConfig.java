@@ -0,0 +1,50 @@
+package projeto.redes2.project.config;
+
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskDecorator;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import projeto.redes2.project.core.jdbc.MeteredDataSource;
+import projeto.redes2.project.core.jdbc.QueryStats;
+
+@Configuration
+public class ObservabilityConfig {
+
+    //Habilita @Timed nos services
+    @Bean
+    TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    //Aplicado pelo Boot ao applicationTaskExecutor, que roda os resultados assincronos do MVC
+    @Bean
+    TaskDecorator queryStatsTaskDecorator() {
+        return QueryStats::propagate;
+    }
+
+    @Bean
+    static BeanPostProcessor meteredDataSource(Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+        Duration threshold = environment.getProperty("api.jdbc.slow-query.threshold", Duration.class, Duration.ofMillis(200));
+        double sampleRate = environment.getProperty("api.jdbc.slow-query.sample-rate", Double.class, 1.0);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof MeteredDataSource) {
+                    return bean;
+                }
+                Runnable onSlowQuery = () -> meterRegistry.ifAvailable(registry -> Counter.builder("jdbc.statements.slow")
+                        .description("Statements slower than api.jdbc.slow-query.threshold")
+                        .register(registry)
+                        .increment());
+                return new MeteredDataSource(dataSource, threshold, sampleRate, onSlowQuery);
+            }
+        };
+    }
+}
@@ -0,0 +1,29 @@
+package projeto.redes2.project.config;
+
+import java.nio.file.Path;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import projeto.redes2.project.core.outbox.FileChangeSink;
+import projeto.redes2.project.core.outbox.InMemoryChangeSink;
+
+/**
+ * Destinations of the outbox relay. Others are added as {@code ChangeSink} beans.
+ */
+@Configuration
+public class OutboxConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "api.outbox.sinks.file.path")
+    FileChangeSink fileChangeSink(@Value("${api.outbox.sinks.file.path}") Path path, ObjectMapper objectMapper) {
+        return new FileChangeSink(path, objectMapper.writer());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "api.outbox.sinks.memory.enabled", havingValue = "true")
+    InMemoryChangeSink inMemoryChangeSink(@Value("${api.outbox.sinks.memory.maximum-size:10000}") int maximumSize) {
+        return new InMemoryChangeSink(maximumSize);
+    }
+}
@@ -0,0 +1,87 @@
+package projeto.redes2.project.config;
+
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import projeto.redes2.project.core.jdbc.ReplicaDataSource;
+import projeto.redes2.project.core.jdbc.ReplicaLagMonitor;
+
+/**
+ * With {@code api.datasource.replica.url} set, {@code @Transactional(readOnly = true)} work
+ * runs on a replica pool and everything else on the primary. The connection is only taken
+ * on the first statement, once Spring has marked it read-only, which is what lets
+ * {@link LazyConnectionDataSourceProxy} pick the pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "api.datasource.replica.url")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReadReplicaConfig {
+
+    @Bean
+    Pools dataSourcePools(DataSourceProperties properties, Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+        Binder binder = Binder.get(environment);
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+
+        HikariDataSource replica = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(environment.getRequiredProperty("api.datasource.replica.url"))
+                .username(environment.getProperty("api.datasource.replica.username", properties.determineUsername()))
+                .password(environment.getProperty("api.datasource.replica.password", properties.determinePassword()))
+                .build();
+        binder.bind("api.datasource.replica.hikari", Bindable.ofInstance(replica));
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+
+        //Metricas do Hikari separadas pela tag pool (primary/replica)
+        meterRegistry.ifAvailable(registry -> {
+            primary.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        });
+        return new Pools(primary, replica);
+    }
+
+    @Bean
+    ReplicaLagMonitor replicaLagMonitor(Pools pools, Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+        var monitor = new ReplicaLagMonitor(pools.replica(),
+                environment.getProperty("api.datasource.replica.lag-query"),
+                environment.getProperty("api.datasource.replica.max-lag", Duration.class, Duration.ofSeconds(5)),
+                environment.getProperty("api.datasource.replica.fallback-to-primary", Boolean.class, true));
+        meterRegistry.ifAvailable(registry -> {
+            Gauge.builder("jdbc.replica.lag", monitor, ReplicaLagMonitor::lagSeconds).baseUnit("seconds").register(registry);
+            Gauge.builder("jdbc.replica.usable", monitor, m -> m.replicaUsable() ? 1 : 0).register(registry);
+        });
+        return monitor;
+    }
+
+    @Bean
+    DataSource dataSource(Pools pools, ReplicaLagMonitor monitor) {
+        var routing = new LazyConnectionDataSourceProxy(pools.primary());
+        routing.setReadOnlyDataSource(new ReplicaDataSource(pools.replica(), pools.primary(), monitor::replicaUsable));
+        return routing;
+    }
+
+    //Os pools nao sao beans DataSource para nao receberem os BeanPostProcessors; fechados com o contexto
+    record Pools(HikariDataSource primary, HikariDataSource replica) implements AutoCloseable {
+
+        @Override
+        public void close() {
+            replica.close();
+            primary.close();
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package projeto.redes2.project.config;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -13,32 +16,44 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import projeto.redes2.project.enums.Roles;
+import projeto.redes2.project.security.RateLimitFilter;
+import projeto.redes2.project.security.RateLimitProperties;
 import projeto.redes2.project.security.SecurityFilter;
+import projeto.redes2.project.security.TokenProperties;
 
 @Configuration
 @EnableWebSecurity
+@EnableConfigurationProperties({ TokenProperties.class, RateLimitProperties.class })
 public class SecurityConfig {
 
     @Autowired
     SecurityFilter securityFilter;
 
     @Bean
-    SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    SecurityFilterChain securityFilterChain(HttpSecurity http, ObjectProvider<RateLimitFilter> rateLimitFilter) throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(authorize -> authorize
+                        //Validacao em lote e para o gateway e servicos integrados, nao para clientes anonimos
+                        .requestMatchers(HttpMethod.POST, SecurityFilter.VALIDATE_BATCH).hasRole(Roles.ADMIN.name())
                         .requestMatchers(HttpMethod.POST, "/auth/**").permitAll()
                         .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
+                        .requestMatchers("/actuator/tokenkeys/**").hasRole(Roles.ADMIN.name())
+                        //O feed traz as mudancas de todos os usuarios, para sistemas integrados
+                        .requestMatchers("/changes/**").hasRole(Roles.ADMIN.name())
                         .anyRequest().authenticated()
                 )
                 .addFilterBefore(securityFilter, UsernamePasswordAuthenticationFilter.class);
+        //Depois do SecurityFilter para limitar pelo usuario autenticado
+        rateLimitFilter.ifAvailable(filter -> http.addFilterAfter(filter, SecurityFilter.class));
         return http.build();
     }
 
     @Bean
-    PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    PasswordEncoder passwordEncoder(@Value("${api.security.password.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 
     @Bean
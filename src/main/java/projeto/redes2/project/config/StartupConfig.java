@@ -0,0 +1,49 @@
+package projeto.redes2.project.config;
+
+import java.lang.reflect.Method;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.annotation.Schedules;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Startup knobs used by the {@code fast-start} profile. They are beans rather than conditions
+ * so they can still be changed at runtime when the context was prepared ahead of time (AOT).
+ */
+@Slf4j
+@Configuration
+public class StartupConfig {
+
+    //Com varias instancias subindo juntas, as migracoes rodam uma vez no deploy e nao em cada uma
+    @Bean
+    FlywayMigrationStrategy flywayMigrationStrategy(@Value("${api.flyway.migrate-on-start:true}") boolean migrateOnStart) {
+        return flyway -> {
+            if (migrateOnStart) {
+                flyway.migrate();
+            } else {
+                log.info("Skipping Flyway migrations (api.flyway.migrate-on-start=false)");
+            }
+        };
+    }
+
+    /**
+     * With {@code spring.main.lazy-initialization}, a bean only gets its {@code @Scheduled}
+     * methods registered once something creates it, so beans with scheduled work stay eager.
+     */
+    @Bean
+    static LazyInitializationExcludeFilter scheduledBeansStayEager() {
+        return (beanName, definition, beanType) -> !MethodIntrospector.selectMethods(beanType,
+                (MethodIntrospector.MetadataLookup<Boolean>) StartupConfig::scheduled).isEmpty();
+    }
+
+    private static Boolean scheduled(Method method) {
+        return AnnotatedElementUtils.hasAnnotation(method, Scheduled.class) || AnnotatedElementUtils.hasAnnotation(method, Schedules.class)
+                ? Boolean.TRUE : null;
+    }
+}
@@ -0,0 +1,31 @@
+package projeto.redes2.project.config;
+
+import java.util.Locale;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.core.convert.converter.ConverterFactory;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    //Enums na query string sem diferenciar maiusculas (?sort=name&direction=desc)
+    @Override
+    public void addFormatters(@SuppressWarnings("null") FormatterRegistry registry) {
+        registry.addConverterFactory(new CaseInsensitiveEnumConverterFactory());
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private static final class CaseInsensitiveEnumConverterFactory implements ConverterFactory<String, Enum> {
+
+        @Override
+        public <T extends Enum> Converter<String, T> getConverter(Class<T> targetType) {
+            return source -> {
+                String name = source.trim();
+                if (name.isEmpty()) return null;
+                return (T) Enum.valueOf(targetType, name.toUpperCase(Locale.ROOT));
+            };
+        }
+    }
+}
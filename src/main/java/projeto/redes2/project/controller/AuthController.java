@@ -1,16 +1,22 @@
 package projeto.redes2.project.controller;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import projeto.redes2.project.dto.ResponseDTO;
+import projeto.redes2.project.dto.TokenClaimsDTO;
 import projeto.redes2.project.model.LoginRequest;
+import projeto.redes2.project.model.RefreshRequest;
 import projeto.redes2.project.model.User;
-import projeto.redes2.project.security.TokenService;
 import projeto.redes2.project.service.AuthService;
 import projeto.redes2.project.service.UserService;
 import jakarta.validation.Valid;
@@ -24,25 +30,43 @@ public class AuthController {
 
     private final AuthService authService;
     private final UserService userService;
-    private final TokenService tokenService;
+
+    private static final String BEARER = "Bearer ";
 
     @PostMapping("/login")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseDTO authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
-        ResponseDTO response = authService.authenticate(loginRequest.getEmail(), loginRequest.getPassword());
-        return response;
+    public CompletableFuture<ResponseDTO> authenticateUser(@Valid @RequestBody LoginRequest loginRequest, HttpServletRequest request) {
+        //Atras de proxy, server.forward-headers-strategy faz o getRemoteAddr devolver o cliente
+        return authService.authenticate(loginRequest.getEmail(), loginRequest.getPassword(), request.getRemoteAddr());
     }
 
+    //O token pode vir no header Authorization (sem corpo para ler) ou, como antes, cru no corpo
     @PostMapping("/validate")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseDTO validateToken(@Valid @RequestBody String token) {
-        String email = tokenService.validateToken(token);
-        if (email != null) {
-            var user = authService.findByEmail(email);
-            return new ResponseDTO(user, token);
-        } else {
-            return null;
+    public TokenClaimsDTO validateToken(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestBody(required = false) String token) {
+        if (authorization != null && authorization.startsWith(BEARER)) {
+            return authService.validate(authorization.substring(BEARER.length()));
         }
+        return authService.validate(token == null ? null : token.trim());
+    }
+
+    @PostMapping("/refresh")
+    @ResponseStatus(HttpStatus.OK)
+    public ResponseDTO refresh(@Valid @RequestBody RefreshRequest request) {
+        return authService.refresh(request.getRefreshToken());
+    }
+
+    @PostMapping("/logout")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        authService.logout(authorization != null && authorization.startsWith(BEARER) ? authorization.substring(BEARER.length()) : null);
+    }
+
+    @PostMapping("/validate/batch")
+    @ResponseStatus(HttpStatus.OK)
+    public List<TokenClaimsDTO> validateTokens(@RequestBody List<String> tokens) {
+        return authService.validateAll(tokens);
     }
 
     @PostMapping("/user")
@@ -0,0 +1,24 @@
+package projeto.redes2.project.controller;
+
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import lombok.RequiredArgsConstructor;
+import projeto.redes2.project.dto.ChangeFeedDTO;
+import projeto.redes2.project.service.OutboxService;
+
+@RestController
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+@RequestMapping("/changes")
+@RequiredArgsConstructor
+public class ChangeController {
+	
+	private final OutboxService service;
+	
+	@GetMapping
+	public ChangeFeedDTO changes(@RequestParam(required = false) Long since, @RequestParam(required = false) Integer size){
+		return service.feed(since, size);
+	}
+}
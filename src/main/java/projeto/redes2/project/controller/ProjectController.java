@@ -2,7 +2,10 @@ package projeto.redes2.project.controller;
 
 import java.util.List;
 import java.util.Map;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,15 +14,31 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import projeto.redes2.project.core.http.ApiMediaTypes;
+import projeto.redes2.project.core.http.ETags;
 import projeto.redes2.project.dto.ProjectDTO;
+import projeto.redes2.project.dto.ProjectOperationDTO;
+import projeto.redes2.project.dto.ProjectOperationResultDTO;
+import projeto.redes2.project.dto.ProjectSearchDTO;
+import projeto.redes2.project.dto.ProjectStatsDTO;
 import projeto.redes2.project.model.Project;
+import projeto.redes2.project.service.ProjectBatchService;
+import projeto.redes2.project.service.ProjectEventHub;
 import projeto.redes2.project.service.ProjectService;
+import projeto.redes2.project.service.ProjectStatsService;
 import projeto.redes2.project.service.UserService;
 
 @RestController
@@ -30,17 +49,76 @@ public class ProjectController {
 	
 	private final ProjectService service;
 	private final UserService userService;
+	private final ProjectBatchService batchService;
+	private final ProjectStatsService statsService;
+	private final ProjectEventHub eventHub;
 	
 	@GetMapping("/{id}") 
-	@ResponseStatus(HttpStatus.OK)
-	public ProjectDTO get(@PathVariable Long id){
-		return service.getProject(id);			
+	public ResponseEntity<ProjectDTO> get(@PathVariable Long id, @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+			WebRequest request, HttpServletResponse response){
+		ProjectDTO project = service.getProject(id);
+		MediaType representation = ApiMediaTypes.negotiate(accept);
+		String etag = ETags.of(project.id(), project.version(), representation);
+		response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+		if(request.checkNotModified(etag)) {
+			return null; //304 sem serializar o corpo
+		}
+		return withETag(project, representation);
 	}
 	
-	@GetMapping("/userProjects/{idUser}")
-	@ResponseStatus(HttpStatus.OK)
-	public List<ProjectDTO> allProjects(@PathVariable Long idUser){
-		return service.all(idUser);
+	@GetMapping(value = "/userProjects/{idUser}", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+			ApiMediaTypes.APPLICATION_SMILE_VALUE })
+	public ResponseEntity<List<ProjectDTO>> allProjects(@PathVariable Long idUser, @RequestParam(required = false) Long after,
+			@RequestParam(required = false) Integer size, @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+			WebRequest request, HttpServletResponse servletResponse){
+		MediaType representation = ApiMediaTypes.negotiate(accept);
+		String etag = service.listETag(idUser, representation);
+		servletResponse.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+		if(request.checkNotModified(etag)) {
+			return null;
+		}
+		var page = service.all(idUser, after, size);
+		var response = ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT);
+		if(representation != null) response.contentType(representation);
+		if(page.nextCursor() != null) {
+			String next = ServletUriComponentsBuilder.fromCurrentRequest().replaceQueryParam("after", page.nextCursor()).toUriString();
+			response.header(HttpHeaders.LINK, String.format("<%s>; rel=\"next\"", next));
+		}
+		return response.body(page.content());
+	}
+	
+	@GetMapping("/search")
+	public ResponseEntity<List<ProjectDTO>> search(@Valid ProjectSearchDTO search){
+		var page = service.search(search);
+		var response = ResponseEntity.ok();
+		if(page.hasNext()) {
+			String next = ServletUriComponentsBuilder.fromCurrentRequest().replaceQueryParam("page", page.getNumber() + 1).toUriString();
+			response.header(HttpHeaders.LINK, String.format("<%s>; rel=\"next\"", next));
+		}
+		return response.body(page.getContent());
+	}
+	
+	@GetMapping("/stats")
+	public ProjectStatsDTO stats(@RequestParam(required = false) Long user){
+		if(user == null) {
+			return statsService.global();
+		}
+		service.checkUser(user);
+		return statsService.ofUser(user);
+	}
+	
+	@GetMapping(value = "/userProjects/{idUser}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> streamProjects(@PathVariable Long idUser){
+		service.checkUser(idUser);
+		StreamingResponseBody body = out -> service.stream(idUser, out);
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+	}
+	
+	//Mudancas dos projetos do usuario por push; Last-Event-ID retoma de onde a conexao caiu
+	@GetMapping(value = "/userProjects/{idUser}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter projectEvents(@PathVariable Long idUser, @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId){
+		service.checkUser(idUser);
+		return eventHub.subscribe(idUser, lastEventId);
 	}
 	
 	@PostMapping()
@@ -50,16 +128,30 @@ public class ProjectController {
 		return service.add(receivedProject, user);	
 	}
 	
-	@PatchMapping("/{id}")
+	@PostMapping("/batch")
 	@ResponseStatus(HttpStatus.OK)
-	public ProjectDTO updatePartial(@Valid @RequestBody Map<String, Object> fields, @PathVariable Long id, @Valid HttpServletRequest request){
-		return service.updatePartial(fields, id, request);
+	public List<ProjectOperationResultDTO> batch(@RequestBody List<ProjectOperationDTO> operations){
+		return batchService.execute(operations);
+	}
+	
+	@PatchMapping("/{id}")
+	public ResponseEntity<ProjectDTO> updatePartial(@Valid @RequestBody Map<String, Object> fields, @PathVariable Long id,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch, @Valid HttpServletRequest request){
+		return withETag(service.updatePartial(fields, id, ifMatch, request), ApiMediaTypes.negotiate(request.getHeader(HttpHeaders.ACCEPT)));
 	}
 	
 	@PutMapping("/{id}")
-	@ResponseStatus(HttpStatus.OK)
-	public ProjectDTO update(@Valid @RequestBody Project projectAtt, @PathVariable Long id){
-		return service.update(projectAtt, id);
+	public ResponseEntity<ProjectDTO> update(@Valid @RequestBody Project projectAtt, @PathVariable Long id,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept){
+		return withETag(service.update(projectAtt, id, ifMatch), ApiMediaTypes.negotiate(accept));
+	}
+	
+	//O formato fica fixado no Content-Type para o corpo sair exatamente na representacao da ETag
+	private static ResponseEntity<ProjectDTO> withETag(ProjectDTO project, MediaType representation) {
+		var response = ResponseEntity.ok().eTag(ETags.of(project.id(), project.version(), representation)).varyBy(HttpHeaders.ACCEPT);
+		if(representation != null) response.contentType(representation);
+		return response.body(project);
 	}
 	
 	@DeleteMapping("/{id}")
@@ -1,18 +1,25 @@
 package projeto.redes2.project.controller;
 
 import java.util.Map;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import projeto.redes2.project.core.http.ApiMediaTypes;
+import projeto.redes2.project.core.http.ETags;
 import projeto.redes2.project.dto.UserDTO;
 import projeto.redes2.project.model.User;
 import projeto.redes2.project.service.UserService;
@@ -26,15 +33,23 @@ public class UserController {
 	private final UserService service;
 	
 	@PatchMapping("/{id}")
-	@ResponseStatus(HttpStatus.OK)
-	public UserDTO updatePartial(@Valid @RequestBody Map<String, Object> fields, @PathVariable Long id){
-		return service.updatePartial(fields, id);
+	public ResponseEntity<UserDTO> updatePartial(@Valid @RequestBody Map<String, Object> fields, @PathVariable Long id,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch, @Valid HttpServletRequest request){
+		return withETag(service.updatePartial(fields, id, ifMatch, request), ApiMediaTypes.negotiate(request.getHeader(HttpHeaders.ACCEPT)));
 	}
 	
 	@PutMapping("/{id}")
-	@ResponseStatus(HttpStatus.OK)
-	public UserDTO update(@Valid @RequestBody User userAtt, @PathVariable Long id) {
-		return service.update(userAtt, id);
+	public ResponseEntity<UserDTO> update(@Valid @RequestBody User userAtt, @PathVariable Long id,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+		return withETag(service.update(userAtt, id, ifMatch), ApiMediaTypes.negotiate(accept));
+	}
+	
+	//O formato fica fixado no Content-Type para o corpo sair exatamente na representacao da ETag
+	private static ResponseEntity<UserDTO> withETag(UserDTO user, MediaType representation) {
+		var response = ResponseEntity.ok().eTag(ETags.of(user.id(), user.version(), representation)).varyBy(HttpHeaders.ACCEPT);
+		if(representation != null) response.contentType(representation);
+		return response.body(user);
 	}
 	
 	@DeleteMapping("/{id}")
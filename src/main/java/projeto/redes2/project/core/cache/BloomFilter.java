@@ -0,0 +1,73 @@
+package projeto.redes2.project.core.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over strings. {@link #mightContain} never returns {@code false}
+ * for a value that was {@link #put}, so a negative answer can skip the exact lookup.
+ * Values cannot be removed: callers rebuild a new filter to drop them.
+ */
+public class BloomFilter {
+
+	private final AtomicLongArray words;
+	private final long bits;
+	private final int hashes;
+
+	private BloomFilter(long bits, int hashes) {
+		this.words = new AtomicLongArray((int) ((bits + 63) / 64));
+		this.bits = bits;
+		this.hashes = hashes;
+	}
+
+	public static BloomFilter create(int expectedInsertions, double falsePositiveRate) {
+		int n = Math.max(1, expectedInsertions);
+		long bits = Math.max(64, (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+		int hashes = Math.max(1, (int) Math.round((double) bits / n * Math.log(2)));
+		return new BloomFilter(bits, hashes);
+	}
+
+	public void put(String value) {
+		long hash = hash(value);
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32);
+		for(int i = 1; i <= hashes; i++) {
+			long bit = index(h1 + i * h2);
+			int word = (int) (bit >>> 6);
+			long mask = 1L << bit;
+			long current;
+			while(((current = words.get(word)) & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+				//outro thread mudou a palavra, tenta de novo
+			}
+		}
+	}
+
+	public boolean mightContain(String value) {
+		long hash = hash(value);
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32);
+		for(int i = 1; i <= hashes; i++) {
+			long bit = index(h1 + i * h2);
+			if((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+		}
+		return true;
+	}
+
+	private long index(int combined) {
+		return (combined < 0 ? ~combined : combined) % bits;
+	}
+
+	//FNV-1a seguido do finalizador do MurmurHash3 para espalhar os bits
+	private static long hash(String value) {
+		long hash = 0xcbf29ce484222325L;
+		for(int i = 0; i < value.length(); i++) {
+			hash ^= value.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+}
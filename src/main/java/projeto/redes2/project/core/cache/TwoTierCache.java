@@ -0,0 +1,167 @@
+package projeto.redes2.project.core.cache;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import projeto.redes2.project.core.jdbc.ReadRouting;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Read cache in two levels: a map bound to the current HTTP request, so a row read by the
+ * filter, the controller and the service is loaded once, and a shared Caffeine cache bounded
+ * by size and time. The shared level keeps its own copies, so callers may not change what is
+ * cached. Lookups by a secondary key (email, name) go through an id and are checked against
+ * the cached value, a renamed entity is never returned under its old key.
+ *
+ * Writers call {@link #invalidate(Long)} before and, through the transaction, after commit.
+ * For {@code readYourWrites} after that an entity is loaded from the primary, so a replica
+ * that has not caught up yet cannot put the old row back in the cache. A load that overlaps
+ * an invalidation may have read the old row too, so it is returned but not cached: every
+ * invalidation moves a generation that the load reads before it starts.
+ */
+public class TwoTierCache<T> {
+
+	private static final int STRIPES = 1024;
+
+	private final String name;
+	private final Function<T, Long> idOf;
+	private final UnaryOperator<T> copier;
+	private final Cache<Long, T> entries;
+	private final Cache<String, Long> keys;
+	private final Cache<Long, Boolean> recentWrites;
+	private final Counter requestHits;
+	//Geracoes de invalidacao: por id, em listras, e uma global para as cargas por chave sem id
+	private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+	private final AtomicLong generation = new AtomicLong();
+
+	public TwoTierCache(String name, Function<T, Long> idOf, UnaryOperator<T> copier, long maximumSize,
+			Duration timeToLive, Duration readYourWrites, MeterRegistry meterRegistry) {
+		this.name = name;
+		this.idOf = idOf;
+		this.copier = copier;
+		this.entries = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(timeToLive).recordStats().build();
+		this.keys = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(timeToLive).build();
+		this.recentWrites = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(readYourWrites).build();
+		this.requestHits = Counter.builder("cache.request.hits").tag("cache", name)
+				.description("Lookups answered by the request level").register(meterRegistry);
+		CaffeineCacheMetrics.monitor(meterRegistry, entries, name);
+	}
+
+	public Optional<T> get(Long id, Function<Long, Optional<T>> loader) {
+		if(id == null) return Optional.empty();
+		T value = cached(id);
+		if(value != null) return Optional.of(value);
+
+		long stamp = generations.get(stripe(id));
+		Optional<T> loaded = load(id, () -> loader.apply(id));
+		loaded.ifPresent(found -> put(found, () -> generations.get(stripe(id)) == stamp));
+		return loaded;
+	}
+
+	public Optional<T> getByKey(String keyName, String key, Function<T, String> keyOf, Supplier<Optional<T>> loader) {
+		if(key == null) return Optional.empty();
+		String cacheKey = secondaryKey(keyName, key);
+		Long id = keys.getIfPresent(cacheKey);
+		if(id != null) {
+			T value = cached(id);
+			if(value != null && cacheKey.equals(secondaryKey(keyName, keyOf.apply(value)))) return Optional.of(value);
+			keys.invalidate(cacheKey);
+		}
+
+		long stamp = generation.get();
+		Optional<T> loaded = load(id, loader);
+		loaded.ifPresent(value -> {
+			put(value, () -> generation.get() == stamp);
+			keys.put(cacheKey, idOf.apply(value));
+		});
+		return loaded;
+	}
+
+	public void invalidate(Long id) {
+		if(id == null) return;
+		recentWrites.put(id, Boolean.TRUE);
+		evict(id);
+		if(TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					evict(id);
+				}
+			});
+		}
+	}
+
+	private Optional<T> load(Long id, Supplier<Optional<T>> loader) {
+		return id != null && recentWrites.getIfPresent(id) != null ? ReadRouting.primary(loader) : loader.get();
+	}
+
+	private T cached(Long id) {
+		Map<Long, T> request = requestLevel();
+		T value = request == null ? null : request.get(id);
+		if(value != null) {
+			requestHits.increment();
+			return value;
+		}
+		T shared = entries.getIfPresent(id);
+		if(shared == null) return null;
+		value = copier.apply(shared);
+		if(request != null) request.put(id, value);
+		return value;
+	}
+
+	private void put(T value, BooleanSupplier unchanged) {
+		Long id = idOf.apply(value);
+		T copy = copier.apply(value);
+		//Conferido dentro do compute: a invalidacao muda a geracao antes de remover a entrada
+		entries.asMap().compute(id, (key, current) -> unchanged.getAsBoolean() ? copy : current);
+		Map<Long, T> request = requestLevel();
+		if(request != null) request.put(id, value);
+	}
+
+	private void evict(Long id) {
+		generations.incrementAndGet(stripe(id));
+		generation.incrementAndGet();
+		entries.invalidate(id);
+		Map<Long, T> request = requestLevel();
+		if(request != null) request.remove(id);
+		//Chaves secundarias orfas sao descartadas na proxima leitura
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<Long, T> requestLevel() {
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		if(attributes == null) return null;
+		String attribute = TwoTierCache.class.getName() + "." + name;
+		Map<Long, T> request = (Map<Long, T>) attributes.getAttribute(attribute, RequestAttributes.SCOPE_REQUEST);
+		if(request == null) {
+			request = new HashMap<>();
+			attributes.setAttribute(attribute, request, RequestAttributes.SCOPE_REQUEST);
+		}
+		return request;
+	}
+
+	private static int stripe(Long id) {
+		return Long.hashCode(id) & (STRIPES - 1);
+	}
+
+	//Mesma regra da collation do MySQL: comparacao sem diferenciar maiusculas
+	private static String secondaryKey(String keyName, String key) {
+		return keyName + ":" + (key == null ? "" : key.toLowerCase(Locale.ROOT));
+	}
+}
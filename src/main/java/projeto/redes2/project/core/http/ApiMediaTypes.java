@@ -0,0 +1,44 @@
+package projeto.redes2.project.core.http;
+
+import java.util.List;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Media types the API negotiates besides JSON. CBOR has a constant in Spring; Smile only the
+ * value its converter registers.
+ */
+public final class ApiMediaTypes {
+
+	public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+	public static final MediaType APPLICATION_SMILE = MediaType.valueOf(APPLICATION_SMILE_VALUE);
+
+	private static final List<MediaType> NEGOTIATED = List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, APPLICATION_SMILE);
+
+	private ApiMediaTypes() { }
+
+	/**
+	 * The representation to send for an {@code Accept} header: JSON, CBOR or Smile, JSON when
+	 * the header is missing, and {@code null} when none of them is acceptable.
+	 */
+	public static MediaType negotiate(String accept) {
+		if(!StringUtils.hasText(accept)) return MediaType.APPLICATION_JSON;
+		List<MediaType> acceptable;
+		try {
+			acceptable = MediaType.parseMediaTypes(accept);
+			//Qualidade primeiro, depois o mais especifico, como na negociacao do Spring MVC
+			MimeTypeUtils.sortBySpecificity(acceptable);
+		} catch(IllegalArgumentException e) {
+			//Cabecalho invalido ou grande demais: o Spring responde como faria sem a negociacao daqui
+			return null;
+		}
+		for(MediaType type : acceptable) {
+			if(type.getQualityValue() == 0) continue;
+			for(MediaType candidate : NEGOTIATED) {
+				if(type.isCompatibleWith(candidate)) return candidate;
+			}
+		}
+		return null;
+	}
+}
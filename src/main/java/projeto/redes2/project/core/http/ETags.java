@@ -0,0 +1,52 @@
+package projeto.redes2.project.core.http;
+
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+
+/**
+ * Entity tags built from the {@code @Version} column, so they can be compared without
+ * loading or serializing the resource.
+ */
+public final class ETags {
+
+	private ETags() { }
+
+	public static String of(Long id, Long version) {
+		return "\"" + id + "." + version + "\"";
+	}
+
+	/**
+	 * Strong tag of one representation of the resource: JSON keeps the plain tag, CBOR and
+	 * Smile get their own, since the bytes differ.
+	 */
+	public static String of(Long id, Long version, MediaType representation) {
+		return "\"" + id + "." + version + suffix(representation) + "\"";
+	}
+
+	//Listagem: qualquer insert, update ou delete muda ao menos um dos tres valores.
+	//Fraca: vale com ou sem gzip (o Tomcat nao comprime com ETag forte); o formato entra na tag
+	public static String ofList(long count, long versionSum, long idSum, MediaType representation) {
+		return "W/\"" + count + "." + versionSum + "." + idSum + suffix(representation) + "\"";
+	}
+
+	//JSON fica com a tag simples; CBOR e Smile ganham ".cbor" e ".smile"
+	private static String suffix(MediaType representation) {
+		if(representation == null || MediaType.APPLICATION_JSON.equalsTypeAndSubtype(representation)) return "";
+		return "." + representation.getSubtype().replace("x-jackson-", "");
+	}
+
+	/**
+	 * If-Match uses the strong comparison: weak tags never match, {@code *} matches any
+	 * current representation and a missing header means the client did not ask for a check.
+	 * {@code current} is the plain tag; the tag of any representation of it matches too.
+	 */
+	public static boolean matches(String ifMatch, String current) {
+		if(!StringUtils.hasText(ifMatch)) return true;
+		String representation = current.substring(0, current.length() - 1) + ".";
+		for(String candidate : ifMatch.split(",")) {
+			String tag = candidate.trim();
+			if(tag.equals("*") || tag.equals(current) || tag.startsWith(representation) && tag.endsWith("\"")) return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,94 @@
+package projeto.redes2.project.core.jdbc;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Lets at most {@code permits} callers hold a connection at once, queueing the rest on a
+ * fair semaphore. With the permits equal to the pool size, waiting happens here in FIFO
+ * order instead of inside the pool, where thousands of virtual threads would all race
+ * for the same handful of connections and time out.
+ */
+public class AdmissionControlledDataSource extends DelegatingDataSource {
+
+	private final Semaphore permits;
+	private final long timeoutNanos;
+
+	public AdmissionControlledDataSource(DataSource target, int permits, Duration timeout) {
+		super(target);
+		this.permits = new Semaphore(permits, true);
+		this.timeoutNanos = timeout.toNanos();
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		acquire();
+		return admitted(() -> super.getConnection());
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		acquire();
+		return admitted(() -> super.getConnection(username, password));
+	}
+
+	public int availablePermits() {
+		return permits.availablePermits();
+	}
+
+	public int queueLength() {
+		return permits.getQueueLength();
+	}
+
+	private void acquire() throws SQLException {
+		try {
+			if(!permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+				throw new SQLTransientConnectionException("Timed out waiting for a database connection permit");
+			}
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLTransientConnectionException("Interrupted while waiting for a database connection permit", e);
+		}
+	}
+
+	private Connection admitted(ConnectionSupplier supplier) throws SQLException {
+		Connection connection;
+		try {
+			connection = supplier.get();
+		} catch(SQLException | RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+		AtomicBoolean released = new AtomicBoolean();
+		return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+			if(method.getName().equals("close") && released.compareAndSet(false, true)) {
+				try {
+					return method.invoke(connection, args);
+				} catch(InvocationTargetException e) {
+					throw e.getTargetException();
+				} finally {
+					permits.release();
+				}
+			}
+			try {
+				return method.invoke(connection, args);
+			} catch(InvocationTargetException e) {
+				throw e.getTargetException();
+			}
+		});
+	}
+
+	@FunctionalInterface
+	private interface ConnectionSupplier {
+		Connection get() throws SQLException;
+	}
+}
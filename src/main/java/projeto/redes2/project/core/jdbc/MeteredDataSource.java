@@ -0,0 +1,119 @@
+package projeto.redes2.project.core.jdbc;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Counts statements, the rows they changed and the rows read into the current {@link QueryStats}
+ * and logs slow statements. Only a sample of the slow ones is logged, so a struggling database
+ * does not also flood the log; all of them are still counted. Connections and statements are
+ * proxied, but result sets are wrapped in a {@link CountingResultSet}, so reading a row never
+ * goes through reflection; outside a request they are handed back untouched.
+ */
+public class MeteredDataSource extends DelegatingDataSource {
+
+	private static final Logger log = LoggerFactory.getLogger(MeteredDataSource.class);
+
+	private final long slowQueryNanos;
+	private final double sampleRate;
+	private final Runnable onSlowQuery;
+
+	public MeteredDataSource(DataSource target, Duration slowQueryThreshold, double sampleRate, Runnable onSlowQuery) {
+		super(target);
+		this.slowQueryNanos = slowQueryThreshold.toNanos();
+		this.sampleRate = sampleRate;
+		this.onSlowQuery = onSlowQuery;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return connection(super.getConnection());
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return connection(super.getConnection(username, password));
+	}
+
+	private Connection connection(Connection connection) {
+		return proxy(Connection.class, connection, (method, args) -> {
+			Object result = invoke(connection, method, args);
+			if(result instanceof Statement statement) {
+				String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+				return statement(statement, method.getReturnType(), sql);
+			}
+			return result;
+		});
+	}
+
+	private Statement statement(Statement statement, Class<?> type, String preparedSql) {
+		return (Statement) proxy(type, statement, (method, args) -> {
+			if(!method.getName().startsWith("execute")) {
+				Object result = invoke(statement, method, args);
+				return method.getName().equals("getResultSet") ? resultSet(result) : result;
+			}
+			long start = System.nanoTime();
+			Object result = invoke(statement, method, args);
+			long elapsed = System.nanoTime() - start;
+			QueryStats.statement(rowsAffected(result));
+			if(elapsed >= slowQueryNanos) {
+				slow(preparedSql != null ? preparedSql : args != null && args.length > 0 ? String.valueOf(args[0]) : "(batch)", elapsed);
+			}
+			return resultSet(result);
+		});
+	}
+
+	private static Object resultSet(Object result) {
+		QueryStats stats = QueryStats.current();
+		return result instanceof ResultSet resultSet && stats != null ? new CountingResultSet(resultSet, stats) : result;
+	}
+
+	//executeUpdate devolve as linhas alteradas e executeBatch uma contagem por comando; SUCCESS_NO_INFO e negativo
+	private static long rowsAffected(Object result) {
+		if(result instanceof Integer count) return Math.max(count, 0);
+		if(result instanceof Long count) return Math.max(count, 0);
+		long total = 0;
+		if(result instanceof int[] counts) {
+			for(int count : counts) total += Math.max(count, 0);
+		} else if(result instanceof long[] counts) {
+			for(long count : counts) total += Math.max(count, 0);
+		}
+		return total;
+	}
+
+	private void slow(String sql, long elapsedNanos) {
+		onSlowQuery.run();
+		if(sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate) {
+			log.warn("Slow query ({} ms): {}", elapsedNanos / 1_000_000, sql);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T proxy(Class<T> type, Object target, Handler handler) {
+		return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> handler.handle(method, args));
+	}
+
+	private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch(InvocationTargetException e) {
+			throw e.getTargetException();
+		}
+	}
+
+	@FunctionalInterface
+	private interface Handler {
+		Object handle(Method method, Object[] args) throws Throwable;
+	}
+}
@@ -0,0 +1,81 @@
+package projeto.redes2.project.core.jdbc;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statements, rows changed and rows read by one unit of work, usually one HTTP request. The
+ * unit is bound to the thread that opened it; work the request hands to another thread is only
+ * counted when the task goes through {@link #propagate(Runnable)}, as the application task
+ * executor (async MVC results, {@code StreamingResponseBody}) and the password hashing pool do.
+ * Threads that do not serve a request, such as the SSE senders and scheduled jobs, count nothing.
+ */
+public final class QueryStats {
+
+	private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+	private final LongAdder statements = new LongAdder();
+	private final LongAdder rows = new LongAdder();
+	private final LongAdder fetched = new LongAdder();
+
+	private QueryStats() { }
+
+	public static QueryStats open() {
+		QueryStats stats = new QueryStats();
+		CURRENT.set(stats);
+		return stats;
+	}
+
+	//Retoma na thread atual uma unidade aberta em outra, como no dispatch assincrono
+	public static void attach(QueryStats stats) {
+		CURRENT.set(stats);
+	}
+
+	public static void close() {
+		CURRENT.remove();
+	}
+
+	//Unidade aberta na thread atual, ou null fora de uma requisicao
+	static QueryStats current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * Runs {@code task} inside the unit open on the calling thread, if any.
+	 */
+	public static Runnable propagate(Runnable task) {
+		QueryStats stats = CURRENT.get();
+		if(stats == null) return task;
+		return () -> {
+			QueryStats previous = CURRENT.get();
+			CURRENT.set(stats);
+			try {
+				task.run();
+			} finally {
+				if(previous == null) CURRENT.remove(); else CURRENT.set(previous);
+			}
+		};
+	}
+
+	static void statement(long rowsAffected) {
+		QueryStats stats = CURRENT.get();
+		if(stats == null) return;
+		stats.statements.increment();
+		stats.rows.add(rowsAffected);
+	}
+
+	void fetched() {
+		fetched.increment();
+	}
+
+	public long statements() {
+		return statements.sum();
+	}
+
+	public long rows() {
+		return rows.sum();
+	}
+
+	public long fetchedRows() {
+		return fetched.sum();
+	}
+}
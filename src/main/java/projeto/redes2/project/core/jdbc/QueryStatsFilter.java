@@ -0,0 +1,106 @@
+package projeto.redes2.project.core.jdbc;
+
+import java.io.IOException;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Records, per endpoint, how many statements a request ran, how many rows they changed and how
+ * many rows it read. Asynchronous requests are recorded once the response completes, so the
+ * work done after the first dispatch returns is counted too.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class QueryStatsFilter extends OncePerRequestFilter {
+
+	private static final String STATS_ATTRIBUTE = QueryStatsFilter.class.getName() + ".stats";
+
+	private final MeterRegistry meterRegistry;
+
+	public QueryStatsFilter(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	protected boolean shouldNotFilterAsyncDispatch() {
+		return false;
+	}
+
+	@Override
+	protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain)
+			throws ServletException, IOException {
+		QueryStats stats = (QueryStats) request.getAttribute(STATS_ATTRIBUTE);
+		boolean first = stats == null;
+		if(first) {
+			stats = QueryStats.open();
+			request.setAttribute(STATS_ATTRIBUTE, stats);
+		} else {
+			QueryStats.attach(stats);
+		}
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			QueryStats.close();
+			if(first && request.isAsyncStarted()) {
+				request.getAsyncContext().addListener(new RecordOnComplete(request, stats));
+			} else if(first) {
+				record(request, stats);
+			}
+		}
+	}
+
+	private void record(HttpServletRequest request, QueryStats stats) {
+		Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+		summary("http.server.requests.statements", "statements", request, uri).record(stats.statements());
+		summary("http.server.requests.rows.affected", "rows", request, uri).record(stats.rows());
+		summary("http.server.requests.rows.fetched", "rows", request, uri).record(stats.fetchedRows());
+	}
+
+	private DistributionSummary summary(String name, String unit, HttpServletRequest request, String uri) {
+		return DistributionSummary.builder(name)
+				.baseUnit(unit)
+				.tag("method", request.getMethod())
+				.tag("uri", uri)
+				.register(meterRegistry);
+	}
+
+	private final class RecordOnComplete implements AsyncListener {
+
+		private final HttpServletRequest request;
+		private final QueryStats stats;
+
+		RecordOnComplete(HttpServletRequest request, QueryStats stats) {
+			this.request = request;
+			this.stats = stats;
+		}
+
+		@Override
+		public void onComplete(AsyncEvent event) {
+			record(request, stats);
+		}
+
+		@Override
+		public void onTimeout(AsyncEvent event) { }
+
+		@Override
+		public void onError(AsyncEvent event) { }
+
+		@Override
+		public void onStartAsync(AsyncEvent event) {
+			event.getAsyncContext().addListener(this);
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package projeto.redes2.project.core.jdbc;
+
+import java.util.function.Supplier;
+
+/**
+ * Pins the reads of the current thread to the primary, for data that was just written and
+ * may not have reached the replicas yet. Only connections opened inside {@link #primary}
+ * are affected.
+ */
+public final class ReadRouting {
+
+	private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+	private ReadRouting() { }
+
+	public static <T> T primary(Supplier<T> work) {
+		Boolean previous = PRIMARY.get();
+		PRIMARY.set(Boolean.TRUE);
+		try {
+			return work.get();
+		} finally {
+			if(previous == null) PRIMARY.remove();
+		}
+	}
+
+	static boolean primaryRequired() {
+		return PRIMARY.get() != null;
+	}
+}
@@ -0,0 +1,37 @@
+package projeto.redes2.project.core.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.BooleanSupplier;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Where read-only transactions get their connections: the replica pool, unless the reads
+ * are pinned by {@link ReadRouting} or the replica is lagging, then the primary.
+ */
+public class ReplicaDataSource extends DelegatingDataSource {
+
+	private final DataSource primary;
+	private final BooleanSupplier replicaUsable;
+
+	public ReplicaDataSource(DataSource replica, DataSource primary, BooleanSupplier replicaUsable) {
+		super(replica);
+		this.primary = primary;
+		this.replicaUsable = replicaUsable;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return useReplica() ? super.getConnection() : primary.getConnection();
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return useReplica() ? super.getConnection(username, password) : primary.getConnection(username, password);
+	}
+
+	private boolean useReplica() {
+		return !ReadRouting.primaryRequired() && replicaUsable.getAsBoolean();
+	}
+}
@@ -0,0 +1,75 @@
+package projeto.redes2.project.core.jdbc;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Checks the replica every few seconds and tells {@link ReplicaDataSource} whether reads may
+ * go to it. The lag comes from {@code lagQuery}, whose first column is the delay in seconds;
+ * without one only reachability is checked. With fallback disabled the replica is always used.
+ */
+public class ReplicaLagMonitor {
+
+	private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+	private final DataSource replica;
+	private final String lagQuery;
+	private final long maxLagSeconds;
+	private final boolean fallbackToPrimary;
+
+	private volatile boolean healthy = true;
+	private volatile double lagSeconds = Double.NaN;
+
+	public ReplicaLagMonitor(DataSource replica, String lagQuery, Duration maxLag, boolean fallbackToPrimary) {
+		this.replica = replica;
+		this.lagQuery = lagQuery == null || lagQuery.isBlank() ? null : lagQuery;
+		this.maxLagSeconds = maxLag.toSeconds();
+		this.fallbackToPrimary = fallbackToPrimary;
+	}
+
+	public boolean replicaUsable() {
+		return healthy || !fallbackToPrimary;
+	}
+
+	public double lagSeconds() {
+		return lagSeconds;
+	}
+
+	@Scheduled(fixedDelayString = "${api.datasource.replica.check-interval:PT5S}")
+	public void check() {
+		boolean wasHealthy = healthy;
+		try(Connection connection = replica.getConnection()) {
+			if(lagQuery == null) {
+				lagSeconds = Double.NaN;
+				healthy = connection.isValid(1);
+			} else {
+				lagSeconds = lag(connection);
+				//NULL: replicacao parada
+				healthy = !Double.isNaN(lagSeconds) && lagSeconds <= maxLagSeconds;
+			}
+		} catch(SQLException e) {
+			lagSeconds = Double.NaN;
+			healthy = false;
+			log.debug("Replica check failed", e);
+		}
+		if(wasHealthy != healthy) {
+			log.warn(healthy ? "Replica caught up, reads go back to it" : "Replica unavailable or lagging ({} s), reads go to the primary",
+					lagSeconds);
+		}
+	}
+
+	private double lag(Connection connection) throws SQLException {
+		try(Statement statement = connection.createStatement(); ResultSet result = statement.executeQuery(lagQuery)) {
+			if(!result.next()) return Double.NaN;
+			double lag = result.getDouble(1);
+			return result.wasNull() ? Double.NaN : lag;
+		}
+	}
+}
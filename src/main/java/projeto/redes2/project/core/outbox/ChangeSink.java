@@ -0,0 +1,19 @@
+package projeto.redes2.project.core.outbox;
+
+import java.util.List;
+import projeto.redes2.project.dto.ChangeEventDTO;
+
+/**
+ * Destination of the outbox relay. Events arrive in id order, which keeps the order of the
+ * changes of each aggregate. Delivery is at least once: a batch that fails, or whose position
+ * could not be saved, is delivered again, so sinks should ignore ids they have already seen.
+ */
+public interface ChangeSink {
+
+	/**
+	 * Stable name, the key of the relay position of this sink.
+	 */
+	String name();
+
+	void deliver(List<ChangeEventDTO> events);
+}
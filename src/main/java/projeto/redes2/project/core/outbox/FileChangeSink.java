@@ -0,0 +1,51 @@
+package projeto.redes2.project.core.outbox;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import projeto.redes2.project.dto.ChangeEventDTO;
+
+/**
+ * Appends each event as one JSON line to a local file and forces the batch to disk before
+ * the relay moves its position.
+ */
+public class FileChangeSink implements ChangeSink {
+
+	private final Path path;
+	private final ObjectWriter writer;
+
+	public FileChangeSink(Path path, ObjectWriter writer) {
+		this.path = path;
+		this.writer = writer.forType(ChangeEventDTO.class);
+	}
+
+	@Override
+	public String name() {
+		return "file";
+	}
+
+	@Override
+	public void deliver(List<ChangeEventDTO> events) {
+		try {
+			if(path.getParent() != null) Files.createDirectories(path.getParent());
+			StringBuilder lines = new StringBuilder(events.size() * 256);
+			for(ChangeEventDTO event : events) {
+				lines.append(writer.writeValueAsString(event)).append('\n');
+			}
+			try(FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+				ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+				while(buffer.hasRemaining()) channel.write(buffer);
+				channel.force(false);
+			}
+		} catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
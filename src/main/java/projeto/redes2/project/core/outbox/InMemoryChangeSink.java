@@ -0,0 +1,40 @@
+package projeto.redes2.project.core.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import projeto.redes2.project.dto.ChangeEventDTO;
+
+/**
+ * Keeps the last {@code maximumSize} delivered events in memory, for tests and local runs.
+ */
+public class InMemoryChangeSink implements ChangeSink {
+
+	private final ConcurrentLinkedDeque<ChangeEventDTO> events = new ConcurrentLinkedDeque<>();
+	private final AtomicInteger size = new AtomicInteger();
+	private final int maximumSize;
+
+	public InMemoryChangeSink(int maximumSize) {
+		this.maximumSize = maximumSize;
+	}
+
+	@Override
+	public String name() {
+		return "memory";
+	}
+
+	@Override
+	public void deliver(List<ChangeEventDTO> batch) {
+		for(ChangeEventDTO event : batch) {
+			events.addLast(event);
+			if(size.incrementAndGet() > maximumSize && events.pollFirst() != null) {
+				size.decrementAndGet();
+			}
+		}
+	}
+
+	public List<ChangeEventDTO> events() {
+		return new ArrayList<>(events);
+	}
+}
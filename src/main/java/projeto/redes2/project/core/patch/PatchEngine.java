@@ -0,0 +1,110 @@
+package projeto.redes2.project.core.patch;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import org.springframework.beans.BeanUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import jakarta.persistence.Id;
+import jakarta.persistence.Version;
+import projeto.redes2.project.model.Project;
+import projeto.redes2.project.model.User;
+
+/**
+ * Applies a JSON Merge Patch (RFC 7396) to an entity. The patch is bound once with the
+ * application's ObjectMapper, so type errors and unknown properties fail exactly as in a
+ * normal request body, and only the members present in the patch are copied onto the
+ * target, through getter/setter lambdas generated at startup. A {@code null} member
+ * clears the property. Associations such as {@code Project.user} are replaced, not merged.
+ * Identifiers, versions and {@code READ_ONLY} properties (such as {@code User.role}) are not
+ * patchable.
+ */
+@Component
+public class PatchEngine {
+
+	private final ObjectMapper objectMapper;
+	private final Map<Class<?>, Map<String, PropertyAccessor>> accessors;
+
+	public PatchEngine(ObjectMapper objectMapper) {
+		this.objectMapper = objectMapper.copy().enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+		this.accessors = Map.of(Project.class, accessorsOf(Project.class), User.class, accessorsOf(User.class));
+	}
+
+	/**
+	 * @throws IllegalArgumentException wrapping the Jackson exception when the patch
+	 * does not bind to {@code type}, the same contract as {@link ObjectMapper#convertValue}.
+	 */
+	public <T> T merge(Map<String, Object> patch, T target, Class<T> type) {
+		Map<String, PropertyAccessor> table = accessors.get(type);
+		for(String name : patch.keySet()) {
+			if(!table.containsKey(name)) {
+				String message = String.format("Unrecognized field \"%s\" (class %s), not marked as ignorable", name, type.getName());
+				UnrecognizedPropertyException cause = new UnrecognizedPropertyException(null, message, JsonLocation.NA, type, name, new ArrayList<>(table.keySet()));
+				cause.prependPath(type, name);
+				throw new IllegalArgumentException(message, cause);
+			}
+		}
+		T values = objectMapper.convertValue(patch, type);
+		for(String name : patch.keySet()) {
+			PropertyAccessor accessor = table.get(name);
+			accessor.setter().accept(target, accessor.getter().apply(values));
+		}
+		return target;
+	}
+
+	private static Map<String, PropertyAccessor> accessorsOf(Class<?> type) {
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		Map<String, PropertyAccessor> table = new LinkedHashMap<>();
+		for(PropertyDescriptor property : BeanUtils.getPropertyDescriptors(type)) {
+			Field field = ReflectionUtils.findField(type, property.getName());
+			if(property.getReadMethod() == null || property.getWriteMethod() == null || field == null || field.isAnnotationPresent(Id.class) || field.isAnnotationPresent(Version.class) || readOnly(field)) {
+				continue;
+			}
+			try {
+				table.put(property.getName(), new PropertyAccessor(
+						getter(lookup, lookup.unreflect(property.getReadMethod())),
+						setter(lookup, lookup.unreflect(property.getWriteMethod()))));
+			} catch(Throwable e) {
+				throw new IllegalStateException(String.format("Could not build accessors for %s.%s", type.getSimpleName(), property.getName()), e);
+			}
+		}
+		return Map.copyOf(table);
+	}
+
+	//Mesma regra do corpo das requisicoes: propriedade READ_ONLY nao e gravada pelo cliente
+	private static boolean readOnly(Field field) {
+		JsonProperty property = field.getAnnotation(JsonProperty.class);
+		return property != null && property.access() == JsonProperty.Access.READ_ONLY;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Function<Object, Object> getter(MethodHandles.Lookup lookup, MethodHandle handle) throws Throwable {
+		CallSite site = LambdaMetafactory.metafactory(lookup, "apply", MethodType.methodType(Function.class),
+				MethodType.methodType(Object.class, Object.class), handle, handle.type().wrap());
+		return (Function<Object, Object>) site.getTarget().invokeExact();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static BiConsumer<Object, Object> setter(MethodHandles.Lookup lookup, MethodHandle handle) throws Throwable {
+		CallSite site = LambdaMetafactory.metafactory(lookup, "accept", MethodType.methodType(BiConsumer.class),
+				MethodType.methodType(void.class, Object.class, Object.class), handle, handle.type().wrap().changeReturnType(void.class));
+		return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+	}
+
+	private record PropertyAccessor(Function<Object, Object> getter, BiConsumer<Object, Object> setter) { }
+}
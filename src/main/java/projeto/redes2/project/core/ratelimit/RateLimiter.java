@@ -0,0 +1,35 @@
+package projeto.redes2.project.core.ratelimit;
+
+import java.time.Duration;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * One {@link TokenBucket} per key. Lookups of existing keys do not lock, and buckets idle for
+ * longer than {@code idleTimeout} are dropped; the timeout must not be shorter than the longest
+ * refill period, or a drained bucket could be forgotten before it refilled.
+ */
+public class RateLimiter {
+
+	private final Cache<Object, TokenBucket> buckets;
+
+	public RateLimiter(Duration idleTimeout, long maximumKeys) {
+		this.buckets = Caffeine.newBuilder()
+				.expireAfterAccess(idleTimeout)
+				.maximumSize(maximumKeys)
+				.build();
+	}
+
+	public TokenBucket.Probe tryAcquire(Object key, int capacity, Duration period) {
+		long now = System.nanoTime();
+		TokenBucket bucket = buckets.getIfPresent(key);
+		if(bucket == null) {
+			bucket = buckets.get(key, k -> new TokenBucket(capacity, period, now));
+		}
+		return bucket.tryConsume(now);
+	}
+
+	public long size() {
+		return buckets.estimatedSize();
+	}
+}
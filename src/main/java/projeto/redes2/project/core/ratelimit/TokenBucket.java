@@ -0,0 +1,46 @@
+package projeto.redes2.project.core.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket of {@code capacity} tokens refilled evenly over {@code period}. The whole state is
+ * the instant the bucket will be full again (GCRA), a single long advanced with CAS, so concurrent
+ * requests never block each other and nothing is allocated besides the returned {@link Probe}.
+ * Times are {@link System#nanoTime()} values.
+ */
+public class TokenBucket {
+
+	private final int capacity;
+	private final long interval;
+	private final long tolerance;
+	private final AtomicLong fullAt;
+
+	public TokenBucket(int capacity, Duration period, long now) {
+		if(capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+		this.capacity = capacity;
+		this.interval = Math.max(1, period.toNanos() / capacity);
+		this.tolerance = interval * capacity;
+		this.fullAt = new AtomicLong(now);
+	}
+
+	public Probe tryConsume(long now) {
+		while(true) {
+			long current = fullAt.get();
+			long base = Math.max(current, now);
+			long backlog = base + interval - now;
+			if(backlog > tolerance) {
+				return new Probe(false, capacity, 0, base - now, backlog - tolerance);
+			}
+			if(fullAt.compareAndSet(current, base + interval)) {
+				return new Probe(true, capacity, (tolerance - backlog) / interval, backlog, 0);
+			}
+		}
+	}
+
+	/**
+	 * Outcome of one request: tokens left, nanos until the bucket is full again and,
+	 * when refused, nanos until the next token.
+	 */
+	public record Probe(boolean allowed, int limit, long remaining, long resetNanos, long retryAfterNanos) { }
+}
@@ -0,0 +1,28 @@
+package projeto.redes2.project.core.search;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.type.BasicType;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers {@code fulltext_score(column, column, terms)} for JPQL. On MySQL it is
+ * {@code MATCH ... AGAINST} in boolean mode, answered by the FULLTEXT index. Other databases
+ * (H2 in the tests) get a plain contains match, scored 1 or 0, that only understands one term.
+ */
+public class FullTextFunctions implements FunctionContributor {
+
+	public static final String SCORE = "fulltext_score";
+
+	@Override
+	public void contributeFunctions(FunctionContributions functionContributions) {
+		BasicType<Double> score = functionContributions.getTypeConfiguration().getBasicTypeRegistry().resolve(StandardBasicTypes.DOUBLE);
+		if(functionContributions.getDialect() instanceof MySQLDialect) {
+			functionContributions.getFunctionRegistry().registerPattern(SCORE, "match(?1, ?2) against(?3 in boolean mode)", score);
+		} else {
+			functionContributions.getFunctionRegistry().registerPattern(SCORE,
+					"case when locate(lower(replace(replace(?3, '+', ''), '*', '')), lower(concat(?1, ' ', ?2))) > 0 then 1.0 else 0.0 end", score);
+		}
+	}
+}
@@ -0,0 +1,37 @@
+package projeto.redes2.project.core.search;
+
+import java.util.StringJoiner;
+
+/**
+ * Builds the boolean mode expression passed to {@link FullTextFunctions#SCORE}. Every word of
+ * the text is required and the prefix matches the start of any word. Operators typed by the
+ * user are dropped, so input can never change the meaning of the expression.
+ */
+public final class FullTextQuery {
+
+	private static final String OPERATORS = "[+\\-<>()~*\"@]";
+
+	private FullTextQuery() { }
+
+	/**
+	 * @return the expression, or {@code null} when neither argument has a searchable word
+	 */
+	public static String of(String text, String prefix) {
+		StringJoiner terms = new StringJoiner(" ");
+		terms.setEmptyValue("");
+		for(String word : words(text)) {
+			terms.add("+" + word);
+		}
+		for(String word : words(prefix)) {
+			terms.add("+" + word + "*");
+		}
+		String query = terms.toString();
+		return query.isEmpty() ? null : query;
+	}
+
+	private static String[] words(String value) {
+		if(value == null) return new String[0];
+		String cleaned = value.replaceAll(OPERATORS, " ").trim();
+		return cleaned.isEmpty() ? new String[0] : cleaned.split("\\s+");
+	}
+}
@@ -0,0 +1,121 @@
+package projeto.redes2.project.core.sse;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * One SSE connection with a bounded queue of its own. Publishing only offers to the queue; the
+ * socket is written by a shared executor, with at most one task per subscriber, so a slow client
+ * ties up one sender thread and never the publisher. A subscriber whose queue fills up is closed,
+ * and the client comes back with {@code Last-Event-ID}.
+ */
+public class SseSubscriber {
+
+	private final SseEmitter emitter;
+	private final ArrayBlockingQueue<Set<DataWithMediaType>> queue;
+	private final Executor senders;
+	private final AtomicBoolean draining = new AtomicBoolean();
+	private final AtomicBoolean closed = new AtomicBoolean();
+	private final AtomicBoolean completed = new AtomicBoolean();
+	private final Consumer<SseSubscriber> onClose;
+	//Eventos ate este id o cliente ja recebeu (de outra instancia, que pode estar a frente desta)
+	private final long seenUpTo;
+
+	public SseSubscriber(SseEmitter emitter, int capacity, long seenUpTo, Executor senders, Consumer<SseSubscriber> onClose) {
+		this.emitter = emitter;
+		this.queue = new ArrayBlockingQueue<>(capacity);
+		this.seenUpTo = seenUpTo;
+		this.senders = senders;
+		this.onClose = onClose;
+		emitter.onCompletion(this::close);
+		emitter.onTimeout(this::close);
+		emitter.onError(error -> close());
+	}
+
+	/**
+	 * Queues a frame without blocking; {@code false} when the subscriber was closed, which
+	 * happens here if its queue is full.
+	 */
+	public boolean offer(long id, Set<DataWithMediaType> frame) {
+		if(closed.get()) return false;
+		if(id > 0 && id <= seenUpTo) return true;
+		if(!queue.offer(frame)) {
+			//Quem publica nao pode esperar o send em andamento: o emitter e encerrado pelo sender
+			if(markClosed()) schedule();
+			return false;
+		}
+		schedule();
+		return true;
+	}
+
+	/**
+	 * Sends on the caller's thread, for frames due before the emitter is returned: Spring holds
+	 * them until the response starts, so they are not written while the request is still in the
+	 * filter chain.
+	 */
+	public void prime(long id, Set<DataWithMediaType> frame) {
+		if(closed.get() || (id > 0 && id <= seenUpTo)) return;
+		try {
+			emitter.send(frame);
+		} catch(IOException | IllegalStateException e) {
+			close();
+		}
+	}
+
+	public void close() {
+		if(markClosed()) complete();
+	}
+
+	private boolean markClosed() {
+		if(!closed.compareAndSet(false, true)) return false;
+		queue.clear();
+		onClose.accept(this);
+		return true;
+	}
+
+	private void complete() {
+		if(!completed.compareAndSet(false, true)) return;
+		try {
+			emitter.complete();
+		} catch(RuntimeException e) {
+			//conexao ja encerrada pelo container
+		}
+	}
+
+	private void schedule() {
+		if(!draining.compareAndSet(false, true)) return;
+		try {
+			senders.execute(this::drain);
+		} catch(RejectedExecutionException e) {
+			draining.set(false);
+			markClosed();
+			complete();
+		}
+	}
+
+	private void drain() {
+		try {
+			Set<DataWithMediaType> frame;
+			while(!closed.get() && (frame = queue.poll()) != null) {
+				emitter.send(frame);
+			}
+		} catch(IOException | IllegalStateException e) {
+			markClosed();
+		} finally {
+			draining.set(false);
+		}
+		//Depois de liberar a flag: um offer ou close concorrente nao fica sem sender
+		if(closed.get()) {
+			complete();
+		} else if(!queue.isEmpty()) {
+			schedule();
+		}
+	}
+}
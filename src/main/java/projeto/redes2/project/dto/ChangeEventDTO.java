@@ -0,0 +1,10 @@
+package projeto.redes2.project.dto;
+
+import java.time.Instant;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import projeto.redes2.project.enums.AggregateType;
+import projeto.redes2.project.enums.ChangeType;
+
+//payload e o JSON gravado no outbox: o estado do agregado depois da mudanca (o ultimo, para DELETED)
+public record ChangeEventDTO(Long id, AggregateType aggregate, Long aggregateId, ChangeType type, Instant occurredAt,
+        @JsonRawValue String payload) { }
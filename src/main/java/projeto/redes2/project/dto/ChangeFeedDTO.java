@@ -0,0 +1,6 @@
+package projeto.redes2.project.dto;
+
+import java.util.List;
+
+//next e o valor de since para a proxima chamada
+public record ChangeFeedDTO(List<ChangeEventDTO> changes, Long next) { }
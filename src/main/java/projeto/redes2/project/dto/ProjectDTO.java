@@ -1,16 +1,17 @@
 package projeto.redes2.project.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import projeto.redes2.project.model.Project;
-import projeto.redes2.project.model.User;
 
-public record ProjectDTO(Long id, String name, String description, Boolean situation, User user) {
+public record ProjectDTO(Long id, String name, String description, Boolean situation, Long userId, @JsonIgnore Long version) {
     public static ProjectDTO fromEntity(Project project) {
         return new ProjectDTO(
             project.getId(),
             project.getName(),
             project.getDescription(),
             project.getSituation(),
-            project.getUser()
+            project.getUser() == null ? null : project.getUser().getId(),
+            project.getVersion()
         );
     }
 }
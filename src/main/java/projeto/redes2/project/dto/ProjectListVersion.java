@@ -0,0 +1,3 @@
+package projeto.redes2.project.dto;
+
+public record ProjectListVersion(Long count, Long versionSum, Long idSum) { }
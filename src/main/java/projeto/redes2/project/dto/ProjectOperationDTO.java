@@ -0,0 +1,5 @@
+package projeto.redes2.project.dto;
+
+import projeto.redes2.project.enums.BatchOperation;
+
+public record ProjectOperationDTO(BatchOperation operation, Long id, String name, String description, Boolean situation, Long userId) { }
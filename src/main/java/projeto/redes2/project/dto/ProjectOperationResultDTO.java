@@ -0,0 +1,8 @@
+package projeto.redes2.project.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import projeto.redes2.project.enums.BatchOperation;
+
+@JsonInclude(Include.NON_NULL)
+public record ProjectOperationResultDTO(int index, BatchOperation operation, Long id, int status, String detail) { }
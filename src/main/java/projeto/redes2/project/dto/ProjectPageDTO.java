@@ -0,0 +1,5 @@
+package projeto.redes2.project.dto;
+
+import java.util.List;
+
+public record ProjectPageDTO(List<ProjectDTO> content, Long nextCursor) { }
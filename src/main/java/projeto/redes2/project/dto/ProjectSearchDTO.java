@@ -0,0 +1,13 @@
+package projeto.redes2.project.dto;
+
+import org.springframework.data.domain.Sort;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import projeto.redes2.project.enums.ProjectSort;
+
+/**
+ * Query string of {@code GET /project/search}: {@code q} are words that must all appear in the
+ * name or description, {@code prefix} the start of a word.
+ */
+public record ProjectSearchDTO(@NotNull Long user, String q, String prefix, Boolean situation, ProjectSort sort,
+        Sort.Direction direction, @PositiveOrZero Integer page, Integer size) { }
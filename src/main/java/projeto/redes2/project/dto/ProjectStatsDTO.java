@@ -0,0 +1,16 @@
+package projeto.redes2.project.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+@JsonInclude(Include.NON_NULL)
+public record ProjectStatsDTO(Long user, long total, long active, long inactive, Long users) {
+
+    public static ProjectStatsDTO ofUser(Long user, long total, long active) {
+        return new ProjectStatsDTO(user, total, active, total - active, null);
+    }
+
+    public static ProjectStatsDTO global(long total, long active, long users) {
+        return new ProjectStatsDTO(null, total, active, total - active, users);
+    }
+}
@@ -1,3 +1,3 @@
 package projeto.redes2.project.dto;
 
-public record ResponseDTO(UserDTO user, String token) { }
\ No newline at end of file
+public record ResponseDTO(UserDTO user, String token, String refreshToken) { }
\ No newline at end of file
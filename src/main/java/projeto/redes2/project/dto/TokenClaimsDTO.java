@@ -0,0 +1,11 @@
+package projeto.redes2.project.dto;
+
+import java.time.Instant;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+@JsonInclude(Include.NON_NULL)
+public record TokenClaimsDTO(boolean valid, Long id, String name, String email, String role, Instant expiresAt) {
+
+    public static final TokenClaimsDTO INVALID = new TokenClaimsDTO(false, null, null, null, null, null);
+}
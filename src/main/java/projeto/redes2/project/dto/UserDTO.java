@@ -1,15 +1,17 @@
 package projeto.redes2.project.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import projeto.redes2.project.model.User;
 
-public record UserDTO(Long id, String name, int age, String email, String username) {
+public record UserDTO(Long id, String name, int age, String email, String username, @JsonIgnore Long version) {
     public static UserDTO fromEntity(User user) {
         return new UserDTO(
             user.getId(),
             user.getName(),
             user.getAge(),
             user.getEmail(),
-            user.getUsername()
+            user.getUsername(),
+            user.getVersion()
         );
     }
-} 
+}
@@ -0,0 +1,6 @@
+package projeto.redes2.project.enums;
+
+public enum AggregateType {
+    PROJECT,
+    USER
+}
@@ -0,0 +1,7 @@
+package projeto.redes2.project.enums;
+
+public enum BatchOperation {
+    CREATE,
+    UPDATE,
+    DELETE
+}
@@ -0,0 +1,14 @@
+package projeto.redes2.project.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class BatchTooLarge extends StacklessException{
+
+	private static final long serialVersionUID = 1L;
+	
+	public BatchTooLarge(String message) {
+		super(message);
+	}
+}
@@ -4,7 +4,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.CONFLICT)
-public class EntityInUse extends RuntimeException{
+public class EntityInUse extends StacklessException{
 
 	private static final long serialVersionUID = 1L;
 	
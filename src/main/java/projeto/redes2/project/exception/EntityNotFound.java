@@ -4,7 +4,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.BAD_REQUEST)
-public class EntityNotFound extends RuntimeException{
+public class EntityNotFound extends StacklessException{
 
 	private static final long serialVersionUID = 1L;
 	
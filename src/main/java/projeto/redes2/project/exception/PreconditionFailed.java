@@ -0,0 +1,14 @@
+package projeto.redes2.project.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class PreconditionFailed extends StacklessException{
+
+	private static final long serialVersionUID = 1L;
+	
+	public PreconditionFailed(String message) {
+		super(message);
+	}
+}
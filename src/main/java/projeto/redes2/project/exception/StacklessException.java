@@ -0,0 +1,14 @@
+package projeto.redes2.project.exception;
+
+/**
+ * Base of the domain exceptions that map straight to a 4xx. They are expected outcomes and are
+ * never logged with a trace, so capturing the stack, most of the cost of throwing, is skipped.
+ */
+public abstract class StacklessException extends RuntimeException{
+
+	private static final long serialVersionUID = 1L;
+	
+	protected StacklessException(String message) {
+		super(message, null, false, false);
+	}
+}
@@ -0,0 +1,22 @@
+package projeto.redes2.project.exception;
+
+import java.time.Duration;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class TooManyRequests extends StacklessException{
+
+	private static final long serialVersionUID = 1L;
+	
+	private final Duration retryAfter;
+	
+	public TooManyRequests(String message, Duration retryAfter) {
+		super(message);
+		this.retryAfter = retryAfter;
+	}
+	
+	public Duration getRetryAfter() {
+		return retryAfter;
+	}
+}
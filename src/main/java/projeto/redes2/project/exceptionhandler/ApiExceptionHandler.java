@@ -1,18 +1,23 @@
 package projeto.redes2.project.exceptionhandler;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.MessageSource;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.lang.NonNull;
+import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -20,13 +25,21 @@ import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import org.springframework.web.servlet.NoHandlerFoundException;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.fasterxml.jackson.databind.exc.InvalidFormatException;
 import com.fasterxml.jackson.databind.exc.PropertyBindingException;
+import lombok.extern.slf4j.Slf4j;
+import projeto.redes2.project.exception.BatchTooLarge;
 import projeto.redes2.project.exception.EntityAlreadyExists;
 import projeto.redes2.project.exception.EntityNotFound;
 import projeto.redes2.project.exception.EntityNotFoundInTheAppeal;
+import projeto.redes2.project.exception.InvalidToken;
+import projeto.redes2.project.exception.PreconditionFailed;
 import projeto.redes2.project.exception.PropertyNotExist;
+import projeto.redes2.project.exception.TooManyRequests;
 
+@Slf4j
 @ControllerAdvice
 public class ApiExceptionHandler extends ResponseEntityExceptionHandler{
 	
@@ -34,39 +47,86 @@ public class ApiExceptionHandler extends ResponseEntityExceptionHandler{
 	private final HttpStatus STTS_BAD_REQUEST = HttpStatus.BAD_REQUEST;
 	private final HttpStatus STTS_CONFLICT = HttpStatus.CONFLICT;
 	
+	//Zona resolvida uma vez; LocalDateTime.now() sem clock consulta o TimeZone padrao a cada chamada
+	private static final Clock CLOCK = Clock.systemDefaultZone();
+	//Somente leitura: o ResponseEntityExceptionHandler so copia os headers para a resposta
+	private static final HttpHeaders NO_HEADERS = HttpHeaders.EMPTY;
+	private static final HttpHeaders INVALID_TOKEN_HEADERS;
+	
+	static {
+		HttpHeaders headers = new HttpHeaders();
+		headers.set(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+		INVALID_TOKEN_HEADERS = HttpHeaders.readOnlyHttpHeaders(headers);
+	}
+	
 	@Autowired 
 	private MessageSource messageSource;
 	
+	//Mesmo locale, codigos e argumentos resolvem sempre para a mesma mensagem
+	private final Cache<MessageKey, String> validationMessages = Caffeine.newBuilder().maximumSize(1_000).build();
+	
 	@ExceptionHandler(EntityNotFoundInTheAppeal.class)
 	public ResponseEntity<?> handleEntityNotFoundInTheAppeal(EntityNotFoundInTheAppeal e, WebRequest request){
 		Problem problem = handleProblem(STTS_NOT_FOUND, ProblemType.RESOURCE_NOT_FOUND, e.getMessage());
-		return handleExceptionInternal(e, problem, new HttpHeaders(), STTS_NOT_FOUND, request);
+		return handleExceptionInternal(e, problem, NO_HEADERS, STTS_NOT_FOUND, request);
 	}
 	
 	@ExceptionHandler(EntityNotFound.class)
 	public ResponseEntity<?> handleEntityNotFound(EntityNotFound e, WebRequest request){
 		Problem problem = handleProblem(STTS_BAD_REQUEST, ProblemType.RESOURCE_NOT_FOUND, e.getMessage());
-		return handleExceptionInternal(e, problem, new HttpHeaders(), STTS_BAD_REQUEST, request);
+		return handleExceptionInternal(e, problem, NO_HEADERS, STTS_BAD_REQUEST, request);
 	}
 	
 	@ExceptionHandler(EntityAlreadyExists.class)
 	public ResponseEntity<?> handleEntityAlreadyExists(EntityAlreadyExists e, WebRequest request){
 		Problem problem = handleProblem(STTS_BAD_REQUEST, ProblemType.ENTITY_ALREADY_EXISTS, e.getMessage());
-		return handleExceptionInternal(e, problem, new HttpHeaders(), STTS_BAD_REQUEST, request);
+		return handleExceptionInternal(e, problem, NO_HEADERS, STTS_BAD_REQUEST, request);
+	}
+	
+	@ExceptionHandler(BatchTooLarge.class)
+	public ResponseEntity<?> handleBatchTooLarge(BatchTooLarge e, WebRequest request){
+		Problem problem = handleProblem(STTS_BAD_REQUEST, ProblemType.INVALID_DATA, e.getMessage());
+		return handleExceptionInternal(e, problem, NO_HEADERS, STTS_BAD_REQUEST, request);
+	}
+	
+	@ExceptionHandler(TooManyRequests.class)
+	public ResponseEntity<?> handleTooManyRequests(TooManyRequests e, WebRequest request){
+		HttpHeaders headers = new HttpHeaders();
+		headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (e.getRetryAfter().toMillis() + 999) / 1000)));
+		Problem problem = handleProblem(HttpStatus.TOO_MANY_REQUESTS, ProblemType.TOO_MANY_REQUESTS, e.getMessage());
+		return handleExceptionInternal(e, problem, headers, HttpStatus.TOO_MANY_REQUESTS, request);
+	}
+	
+	@ExceptionHandler(InvalidToken.class)
+	public ResponseEntity<?> handleInvalidToken(InvalidToken e, WebRequest request){
+		Problem problem = handleProblem(HttpStatus.UNAUTHORIZED, ProblemType.INVALID_TOKEN, e.getMessage());
+		return handleExceptionInternal(e, problem, INVALID_TOKEN_HEADERS, HttpStatus.UNAUTHORIZED, request);
+	}
+	
+	@ExceptionHandler(PreconditionFailed.class)
+	public ResponseEntity<?> handlePreconditionFailed(PreconditionFailed e, WebRequest request){
+		Problem problem = handleProblem(HttpStatus.PRECONDITION_FAILED, ProblemType.PRECONDITION_FAILED, e.getMessage());
+		return handleExceptionInternal(e, problem, NO_HEADERS, HttpStatus.PRECONDITION_FAILED, request);
+	}
+	
+	@ExceptionHandler(OptimisticLockingFailureException.class) //versao mudou entre a leitura e o commit
+	public ResponseEntity<?> handleOptimisticLockingFailure(OptimisticLockingFailureException e, WebRequest request){
+		Problem problem = handleProblem(HttpStatus.PRECONDITION_FAILED, ProblemType.PRECONDITION_FAILED, "The resource was changed by another request. Reload it and try again.");
+		return handleExceptionInternal(e, problem, NO_HEADERS, HttpStatus.PRECONDITION_FAILED, request);
 	}
 	
 	@ExceptionHandler(DataIntegrityViolationException.class)
 	public ResponseEntity<?> handleDataIntegrityViolantionException(DataIntegrityViolationException e, WebRequest request){
 		Problem problem = handleProblem(STTS_BAD_REQUEST, ProblemType.ENTITY_IN_USE, "Essa entidade está relacionada com outras entidades e não pode ser removida");
-		return handleExceptionInternal(e, problem, new HttpHeaders(), STTS_BAD_REQUEST, request);
+		return handleExceptionInternal(e, problem, NO_HEADERS, STTS_BAD_REQUEST, request);
 	}
 	
 	@ExceptionHandler(PropertyNotExist.class)
 	public ResponseEntity<?> handlePropertyNotExists(PropertyNotExist e, WebRequest request){
 		if(e.getCause() instanceof DataIntegrityViolationException)
-			System.out.println(e.getCause());
+			log.debug("Property does not exist", e.getCause());
 		Problem problem = handleProblem(STTS_CONFLICT, ProblemType.PROPERTY_NOT_EXIST, e.getMessage());
-		return handleExceptionInternal(e, problem, new HttpHeaders(), STTS_CONFLICT, request);
+		return handleExceptionInternal(e, problem, NO_HEADERS, STTS_CONFLICT, request);
 	}
 	
 	@ExceptionHandler(MethodArgumentTypeMismatchException.class) //PARAMETRO DE URL INEXISTENTE
@@ -75,23 +135,28 @@ public class ApiExceptionHandler extends ResponseEntityExceptionHandler{
 				+ " Correct and enter a value compatible with type 'Long'", e.getName(), e.getValue());
 		Problem problem = handleProblem(STTS_BAD_REQUEST, ProblemType.INVALID_PARAMETER, detail);
 		
-		return handleExceptionInternal(e, problem, new HttpHeaders(), STTS_BAD_REQUEST, request);
+		return handleExceptionInternal(e, problem, NO_HEADERS, STTS_BAD_REQUEST, request);
 	}
 	
 	@Override
 	protected ResponseEntity<Object> handleMethodArgumentNotValid(@NonNull MethodArgumentNotValidException e,
 			@NonNull HttpHeaders headers, @NonNull HttpStatusCode status, @NonNull WebRequest request) {
 		List<Problem.Field> problemFields = e.getBindingResult().getFieldErrors().stream()
-				.map(fieldError -> {
-					String message = messageSource.getMessage(fieldError, LocaleContextHolder.getLocale());
-					return new Problem.Field(fieldError.getField(), message);
-				})
+				.map(fieldError -> new Problem.Field(fieldError.getField(), message(fieldError, LocaleContextHolder.getLocale())))
 				.collect(Collectors.toList());
 		
 		String detail = "One or more fields are invalid. Fill in correctly and try again.";
 		Problem problem = handleProblemWithProblemFields(STTS_BAD_REQUEST, ProblemType.INVALID_DATA, detail, problemFields);
-		return handleExceptionInternal(e, problem, new HttpHeaders(), STTS_BAD_REQUEST, request);
+		return handleExceptionInternal(e, problem, NO_HEADERS, STTS_BAD_REQUEST, request);
+	}
+
+	private String message(FieldError fieldError, Locale locale) {
+		MessageKey key = new MessageKey(locale, Arrays.toString(fieldError.getCodes()), fieldError.getDefaultMessage(),
+				Arrays.deepToString(fieldError.getArguments()));
+		return validationMessages.get(key, k -> messageSource.getMessage(fieldError, locale));
 	}
+	
+	private record MessageKey(Locale locale, String codes, String defaultMessage, String arguments) { }
 
 	@Override
 	protected ResponseEntity<Object> handleHttpMessageNotReadable(@NonNull HttpMessageNotReadableException e,
@@ -104,7 +169,7 @@ public class ApiExceptionHandler extends ResponseEntityExceptionHandler{
 			return handlePropertyBindingException((PropertyBindingException) rootCause, headers, HttpStatus.valueOf(status.value()), request);
 		}
 		Problem problem = handleProblem(HttpStatus.valueOf(status.value()), ProblemType.INCOMPREHENSIBLE_MESSAGE,  "The request body is invalid. Check syntax error.");
-		return handleExceptionInternal(e, problem, new HttpHeaders(), status, request);
+		return handleExceptionInternal(e, problem, NO_HEADERS, status, request);
 	}
 	
 	private ResponseEntity<Object> handlePropertyBindingException(PropertyBindingException e, HttpHeaders headers, HttpStatus status, WebRequest request) {
@@ -137,9 +202,9 @@ public class ApiExceptionHandler extends ResponseEntityExceptionHandler{
 		@NonNull HttpStatusCode status, @NonNull WebRequest request) {
 		
 		if(body == null) {
-			body = new Problem(LocalDateTime.now(), status.value(), null, HttpStatus.valueOf(status.value()).getReasonPhrase(), null, null);			
+			body = new Problem(LocalDateTime.now(CLOCK), status.value(), null, HttpStatus.valueOf(status.value()).getReasonPhrase(), null, null);			
 		}else if(body instanceof String) {
-			body = new Problem(LocalDateTime.now(), status.value(), null, (String) body, null, null);
+			body = new Problem(LocalDateTime.now(CLOCK), status.value(), null, (String) body, null, null);
 		}
 		return super.handleExceptionInternal(ex, body, headers, status, request);
 	}
@@ -147,14 +212,14 @@ public class ApiExceptionHandler extends ResponseEntityExceptionHandler{
 	@ExceptionHandler(Exception.class)
 	public ResponseEntity<Object> handleExceptionCustom(Exception e, WebRequest request){
 		Problem problem = handleProblem(HttpStatus.INTERNAL_SERVER_ERROR, ProblemType.INTERNAL_SERVER_ERROR, "Erro inesperado. Por favor, entre em contato com nosso suporte.");
-		return handleExceptionInternal(e, problem, new HttpHeaders(), HttpStatus.INTERNAL_SERVER_ERROR, request);
+		return handleExceptionInternal(e, problem, NO_HEADERS, HttpStatus.INTERNAL_SERVER_ERROR, request);
 	}
 	
 	private Problem handleProblem(HttpStatus status, ProblemType problemType, String detail) {
-		return new Problem(LocalDateTime.now(), status.value(), problemType.getUri(), problemType.getTitle(), detail, null);
+		return new Problem(LocalDateTime.now(CLOCK), status.value(), problemType.getUri(), problemType.getTitle(), detail, null);
 	}
 	
 	private Problem handleProblemWithProblemFields(HttpStatus status, ProblemType problemType, String detail, List<Problem.Field> problemFields) {
-		return new Problem(LocalDateTime.now(), status.value(), problemType.getUri(), problemType.getTitle(), detail, problemFields);
+		return new Problem(LocalDateTime.now(CLOCK), status.value(), problemType.getUri(), problemType.getTitle(), detail, problemFields);
 	}
 }
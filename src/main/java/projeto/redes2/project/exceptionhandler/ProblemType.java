@@ -13,7 +13,10 @@ public enum ProblemType {
 	INCOMPREHENSIBLE_MESSAGE("/incomprehensible-message","Incomprehensible message"),
 	INVALID_PARAMETER("/invalid-parameter","Invalid Parameter"),
 	INTERNAL_SERVER_ERROR("/internal-server-error","Internal server error"),
-	INVALID_DATA("/invalid-data","Invalid Data");
+	INVALID_DATA("/invalid-data","Invalid Data"),
+	TOO_MANY_REQUESTS("/too-many-requests","Too many requests"),
+	PRECONDITION_FAILED("/precondition-failed","Precondition failed"),
+	INVALID_TOKEN("/invalid-token","Invalid token");
 	//Um ou mais campos estão inválidos. Faça o preenchimento correto e tente novamente.
 	
 	private String title;
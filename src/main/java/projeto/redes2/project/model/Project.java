@@ -3,11 +3,14 @@ package projeto.redes2.project.model;
 import java.io.Serializable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Version;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.Valid;
@@ -17,7 +20,9 @@ import jakarta.validation.groups.ConvertGroup;
 import jakarta.validation.groups.Default;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import projeto.redes2.project.core.validation.Groups;
 
 //@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
@@ -46,13 +51,19 @@ public class Project implements Serializable{
 	@Column(length = 1, nullable = false) 
 	private Boolean situation;
 	
-	//@ManyToOne(fetch = FetchType.LAZY)
 	@JsonIgnoreProperties(value = {"name", "age", "email", "username", "password"}, allowGetters = true)
 	@Valid
 	@ConvertGroup(from = Default.class, to = Groups.GroupUserId.class)
 	@NotNull
 	@JsonProperty(access = JsonProperty.Access.WRITE_ONLY) //Informando que o atributo pode ser escrito na desserialização mas não é lido na serialização.
-	@ManyToOne
+	@ToString.Exclude
+	@EqualsAndHashCode.Exclude
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "fk_user")
 	private User user;
+	
+	@JsonIgnore
+	@Version
+	@Column(nullable = false)
+	private Long version;
 }
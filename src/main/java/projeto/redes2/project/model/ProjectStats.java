@@ -0,0 +1,27 @@
+package projeto.redes2.project.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Entity
+@Table(name = "project_stats")
+public class ProjectStats {
+
+	@Id
+	@Column(name = "fk_user", nullable = false, updatable = false)
+	private Long userId;
+	
+	@Column(nullable = false)
+	private Long total;
+	
+	@Column(nullable = false)
+	private Long active;
+}
@@ -0,0 +1,10 @@
+package projeto.redes2.project.model;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class RefreshRequest {
+    @NotBlank
+    private String refreshToken;
+}
\ No newline at end of file
@@ -0,0 +1,47 @@
+package projeto.redes2.project.model;
+
+import java.time.Instant;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//Guarda so o hash do refresh token; family agrupa todas as rotacoes de um mesmo login
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Entity
+@Table(name = "refresh_token")
+public class RefreshToken {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(nullable = false, updatable = false)
+	private Long id;
+	
+	@Column(name = "token_hash", nullable = false, updatable = false)
+	private String tokenHash;
+	
+	@Column(nullable = false, updatable = false)
+	private String family;
+	
+	@Column(name = "access_jti", nullable = false, updatable = false)
+	private String accessJti;
+	
+	@Column(name = "fk_user", nullable = false, updatable = false)
+	private Long userId;
+	
+	@Column(name = "created_at", nullable = false, updatable = false)
+	private Instant createdAt;
+	
+	@Column(name = "expires_at", nullable = false, updatable = false)
+	private Instant expiresAt;
+	
+	@Column(name = "revoked_at")
+	private Instant revokedAt;
+}
@@ -6,7 +6,11 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Email;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonProperty.Access;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -48,8 +52,15 @@ public class User implements Serializable{
 	private String username;
 	
 	@NotBlank
-	@Column(length = 50, nullable = false)
+	@Column(length = 72, nullable = false)
 	private String password;
 	
+	//Definido so pelo servidor: ignorado no corpo das requisicoes e fora do PATCH
+	@JsonProperty(access = Access.READ_ONLY)
 	private String role;
+	
+	@JsonIgnore
+	@Version
+	@Column(nullable = false)
+	private Long version;
 }
\ No newline at end of file
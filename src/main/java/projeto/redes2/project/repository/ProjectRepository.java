@@ -1,19 +1,57 @@
 package projeto.redes2.project.repository;
 
-import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
-
+import jakarta.persistence.QueryHint;
+import projeto.redes2.project.core.search.FullTextFunctions;
+import projeto.redes2.project.dto.ProjectDTO;
+import projeto.redes2.project.dto.ProjectListVersion;
 import projeto.redes2.project.model.Project;
 
 public interface ProjectRepository extends JpaRepository<Project, Long>{
 	
-	@Query(
-		value = "SELECT * FROM project WHERE fk_user = :idUser",
-		nativeQuery = true
-	)
-	public ArrayList<Project> allProjects(@Param("idUser") Long idUser);
+	//Projecoes: so as colunas do projeto e a fk do dono, sem carregar o User
+	String PROJECT_DTO = "SELECT new projeto.redes2.project.dto.ProjectDTO(p.id, p.name, p.description, p.situation, p.user.id, p.version) FROM Project p ";
+	
+	@Query(PROJECT_DTO + "WHERE p.id = :id")
+	public Optional<ProjectDTO> findProjectById(@Param("id") Long id);
+	
+	@Query(PROJECT_DTO + "WHERE p.user.id = :idUser AND p.id > :afterId ORDER BY p.id")
+	public List<ProjectDTO> allProjects(@Param("idUser") Long idUser, @Param("afterId") Long afterId, Limit limit);
+	
+	//Calculado so com o indice idx_project_user_listing, sem ler as linhas
+	@Query("SELECT new projeto.redes2.project.dto.ProjectListVersion(COUNT(p), COALESCE(SUM(p.version), 0L), COALESCE(SUM(p.id), 0L)) "
+			+ "FROM Project p WHERE p.user.id = :idUser")
+	public ProjectListVersion listVersion(@Param("idUser") Long idUser);
+	
+	//Fetch size MIN_VALUE faz o driver do MySQL ler linha a linha em vez de carregar o resultado inteiro
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+	@Query(PROJECT_DTO + "WHERE p.user.id = :idUser ORDER BY p.id")
+	public Stream<ProjectDTO> streamProjects(@Param("idUser") Long idUser);
+	
+	//Busca: a ordenacao vem do Pageable; Slice le um a mais em vez de contar as linhas
+	@Query(PROJECT_DTO + "WHERE p.user.id = :idUser AND (:situation IS NULL OR p.situation = :situation)")
+	public Slice<ProjectDTO> search(@Param("idUser") Long idUser, @Param("situation") Boolean situation, Pageable pageable);
+	
+	@Query(PROJECT_DTO + "WHERE p.user.id = :idUser AND (:situation IS NULL OR p.situation = :situation) "
+			+ "AND function('" + FullTextFunctions.SCORE + "', p.name, p.description, :terms) > 0")
+	public Slice<ProjectDTO> searchText(@Param("idUser") Long idUser, @Param("situation") Boolean situation,
+			@Param("terms") String terms, Pageable pageable);
+	
+	@Query(PROJECT_DTO + "WHERE p.user.id = :idUser AND (:situation IS NULL OR p.situation = :situation) "
+			+ "AND function('" + FullTextFunctions.SCORE + "', p.name, p.description, :terms) > 0 "
+			+ "ORDER BY function('" + FullTextFunctions.SCORE + "', p.name, p.description, :terms) DESC, p.id")
+	public Slice<ProjectDTO> searchTextByRelevance(@Param("idUser") Long idUser, @Param("situation") Boolean situation,
+			@Param("terms") String terms, Pageable pageable);
 	
 	@Query(
 			value = "SELECT * FROM project WHERE name = :name AND fk_user = :idUser",
@@ -0,0 +1,33 @@
+package projeto.redes2.project.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import projeto.redes2.project.model.ProjectStats;
+
+public interface ProjectStatsRepository extends JpaRepository<ProjectStats, Long>{
+	
+	//Soma o delta na linha do usuario, criando-a na primeira escrita
+	@Modifying
+	@Query(value = "INSERT INTO project_stats (fk_user, total, active) VALUES (:user, :total, :active) "
+			+ "ON DUPLICATE KEY UPDATE total = total + VALUES(total), active = active + VALUES(active)", nativeQuery = true)
+	public int shift(@Param("user") Long user, @Param("total") long total, @Param("active") long active);
+	
+	//Guarda da reconstrucao: a segunda instancia espera a primeira terminar
+	@Query(value = "SELECT name FROM job_lock WHERE name = 'project-stats-reconcile' FOR UPDATE", nativeQuery = true)
+	public List<String> lockReconcile();
+	
+	@Modifying
+	@Query(value = "DELETE FROM project_stats", nativeQuery = true)
+	public int clear();
+	
+	@Modifying(clearAutomatically = true)
+	@Query(value = "INSERT INTO project_stats (fk_user, total, active) "
+			+ "SELECT fk_user, COUNT(*), SUM(CASE WHEN situation = TRUE THEN 1 ELSE 0 END) FROM project "
+			+ "WHERE fk_user IS NOT NULL GROUP BY fk_user", nativeQuery = true)
+	public int rebuild();
+}
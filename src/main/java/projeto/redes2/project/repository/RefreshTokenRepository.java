@@ -0,0 +1,32 @@
+package projeto.redes2.project.repository;
+
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import projeto.redes2.project.model.RefreshToken;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long>{
+	
+	public RefreshToken findByTokenHash(String tokenHash);
+	
+	public RefreshToken findByAccessJti(String accessJti);
+	
+	public List<RefreshToken> findByFamily(String family);
+	
+	//So um dos pedidos concorrentes com o mesmo token consegue rotaciona-lo
+	@Modifying
+	@Query("UPDATE RefreshToken r SET r.revokedAt = :now WHERE r.id = :id AND r.revokedAt IS NULL")
+	public int markRotated(@Param("id") Long id, @Param("now") Instant now);
+	
+	@Modifying
+	@Query("UPDATE RefreshToken r SET r.revokedAt = :now WHERE r.family = :family AND r.revokedAt IS NULL")
+	public int revokeFamily(@Param("family") String family, @Param("now") Instant now);
+	
+	@Modifying
+	@Query("DELETE FROM RefreshToken r WHERE r.expiresAt < :now")
+	public int deleteExpired(@Param("now") Instant now);
+}
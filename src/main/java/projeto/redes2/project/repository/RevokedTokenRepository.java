@@ -0,0 +1,30 @@
+package projeto.redes2.project.repository;
+
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import projeto.redes2.project.model.RevokedToken;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long>{
+	
+	public boolean existsByJti(String jti);
+	
+	public List<RevokedToken> findByIdGreaterThanOrderById(Long id);
+	
+	public List<RevokedToken> findByIdBetweenOrderById(Long from, Long to);
+	
+	@Query("SELECT COALESCE(MAX(r.id), 0) FROM RevokedToken r")
+	public long maxId();
+	
+	public List<RevokedToken> findByExpiresAtAfter(Instant now);
+	
+	@Transactional
+	@Modifying
+	@Query("DELETE FROM RevokedToken r WHERE r.expiresAt < :now")
+	public int deleteExpired(@Param("now") Instant now);
+}
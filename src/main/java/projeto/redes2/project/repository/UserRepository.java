@@ -1,8 +1,10 @@
 package projeto.redes2.project.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import projeto.redes2.project.model.User;
 
@@ -18,5 +20,13 @@ public interface UserRepository extends JpaRepository<User, Long>{
 	
 	public User findByName(@Param("name") String name);
 	
+	//Login e SecurityFilter: vai para a replica quando houver uma
+	@Transactional(readOnly = true)
 	public User findByEmail(String email);
+	
+	//So troca o hash se ele ainda for o que foi verificado no login
+	@Transactional
+	@Modifying
+	@Query("UPDATE User u SET u.password = :newPassword WHERE u.id = :id AND u.password = :oldPassword")
+	public int updatePassword(@Param("id") Long id, @Param("oldPassword") String oldPassword, @Param("newPassword") String newPassword);
 }
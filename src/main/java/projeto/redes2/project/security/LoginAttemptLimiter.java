@@ -0,0 +1,67 @@
+package projeto.redes2.project.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import projeto.redes2.project.exception.TooManyRequests;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Counts failed logins per email and client address inside a fixed window. Once the limit is
+ * reached that pair is refused, before any hashing, until the window that started with the first
+ * failure closes. Keying on the address too keeps an attacker from locking the owner out of the
+ * account; guessing from many addresses is held back by the per-address limit on
+ * {@code /auth/login} in {@link RateLimitFilter}.
+ */
+@Component
+public class LoginAttemptLimiter {
+
+    private final Cache<String, Attempts> attempts;
+    private final int maxAttempts;
+    private final Duration window;
+
+    public LoginAttemptLimiter(@Value("${api.security.login.max-attempts:5}") int maxAttempts,
+            @Value("${api.security.login.attempt-window:15m}") Duration window,
+            @Value("${api.security.login.maximum-size:100000}") long maximumSize) {
+        this.maxAttempts = maxAttempts;
+        this.window = window;
+        this.attempts = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    public void checkAllowed(String email, String clientIp) {
+        Attempts current = attempts.getIfPresent(key(email, clientIp));
+        Instant now = Instant.now();
+        if (current != null && current.failures() >= maxAttempts && current.isOpen(now, window)) {
+            throw new TooManyRequests("Too many failed login attempts for this email from this address. Try again later.",
+                    Duration.between(now, current.windowStart().plus(window)));
+        }
+    }
+
+    public void failed(String email, String clientIp) {
+        Instant now = Instant.now();
+        attempts.asMap().merge(key(email, clientIp), new Attempts(1, now), (previous, first) -> previous.isOpen(now, window)
+                ? new Attempts(previous.failures() + 1, previous.windowStart())
+                : first);
+    }
+
+    public void succeeded(String email, String clientIp) {
+        attempts.invalidate(key(email, clientIp));
+    }
+
+    private static String key(String email, String clientIp) {
+        return (email == null ? "" : email.trim().toLowerCase(Locale.ROOT)) + "|" + (clientIp == null ? "" : clientIp);
+    }
+
+    private record Attempts(int failures, Instant windowStart) {
+
+        boolean isOpen(Instant now, Duration window) {
+            return now.isBefore(windowStart.plus(window));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package projeto.redes2.project.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.exceptions.JWTDecodeException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import projeto.redes2.project.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Principals already verified by {@link SecurityFilter}, keyed by the raw token.
+ * An entry never outlives the token's own expiration. The token id is kept with the
+ * principal so a cached token can still be checked against the revocation list.
+ */
+@Component
+public class PrincipalCache {
+
+    private static final int STRIPES = 1024;
+
+    private final Cache<String, CachedPrincipal> cache;
+    //Carimbo de invalidacao por usuario, em listras por hash do id
+    private final AtomicLongArray stamps = new AtomicLongArray(STRIPES);
+
+    public PrincipalCache(MeterRegistry meterRegistry,
+            @Value("${api.security.principal-cache.maximum-size:10000}") long maximumSize,
+            @Value("${api.security.principal-cache.time-to-live:5m}") Duration timeToLive) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TokenExpiry(timeToLive))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "principals");
+    }
+
+    public CachedPrincipal get(String token) {
+        return cache.getIfPresent(token);
+    }
+
+    /**
+     * Taken before the user is loaded and handed back to {@link #put}: a load that raced with
+     * {@link #invalidateUser} may have read the old row, so its result is not cached.
+     */
+    public long stamp(Long userId) {
+        return userId == null ? -1 : stamps.get(stripe(userId));
+    }
+
+    public void put(String token, User user, String tokenId, Instant expiresAt, long stamp) {
+        if (expiresAt == null) return;
+        int stripe = stripe(user.getId());
+        //Conferido dentro do compute: a invalidacao muda o carimbo antes de varrer o cache
+        cache.asMap().compute(token, (key, current) -> stamps.get(stripe) == stamp ? new CachedPrincipal(user, tokenId, expiresAt) : current);
+    }
+
+    public void invalidateUser(Long userId) {
+        evict(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId);
+                }
+            });
+        }
+    }
+
+    //Chave aposentada: os tokens assinados com ela nao podem seguir valendo pelo cache
+    public void evictKey(String keyId) {
+        cache.asMap().keySet().removeIf(token -> keyId.equals(keyIdOf(token)));
+    }
+
+    private static String keyIdOf(String token) {
+        try {
+            String keyId = JWT.decode(token).getKeyId();
+            return keyId == null ? TokenService.DEFAULT_KEY_ID : keyId;
+        } catch (JWTDecodeException e) {
+            return null;
+        }
+    }
+
+    private void evict(Long userId) {
+        stamps.incrementAndGet(stripe(userId));
+        cache.asMap().values().removeIf(principal -> userId.equals(principal.user().getId()));
+    }
+
+    private static int stripe(Long userId) {
+        return Long.hashCode(userId) & (STRIPES - 1);
+    }
+
+    public record CachedPrincipal(User user, String tokenId, Instant expiresAt) { }
+
+    private record TokenExpiry(Duration timeToLive) implements Expiry<String, CachedPrincipal> {
+
+        @Override
+        public long expireAfterCreate(String token, CachedPrincipal principal, long currentTime) {
+            long untilExpiration = Duration.between(Instant.now(), principal.expiresAt()).toNanos();
+            return Math.max(0, Math.min(untilExpiration, timeToLive.toNanos()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, CachedPrincipal principal, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, principal, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, CachedPrincipal principal, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
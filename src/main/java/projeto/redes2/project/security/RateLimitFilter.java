@@ -0,0 +1,123 @@
+package projeto.redes2.project.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import projeto.redes2.project.core.ratelimit.RateLimiter;
+import projeto.redes2.project.core.ratelimit.TokenBucket;
+import projeto.redes2.project.exception.TooManyRequests;
+import projeto.redes2.project.model.User;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Token bucket limits per route, keyed by the authenticated user or, on public endpoints and
+ * anonymous requests, by the client address. Runs after {@link SecurityFilter} so the user is
+ * known. Every response carries the {@code RateLimit-*} headers; refused requests get a 429
+ * rendered by the regular exception handler, with {@code Retry-After}.
+ */
+@Component
+@ConditionalOnProperty(name = "api.security.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final long NANOS_PER_SECOND = Duration.ofSeconds(1).toNanos();
+
+    private final RateLimiter limiter;
+    private final List<Route> routes;
+    private final Route defaultRoute;
+    private final HandlerExceptionResolver exceptionResolver;
+    private final Counter rejected;
+
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry,
+            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver) {
+        List<RateLimitProperties.Route> configured = properties.routes();
+        this.routes = IntStream.range(0, configured.size()).mapToObj(i -> Route.of(i, configured.get(i))).toList();
+        this.defaultRoute = new Route(-1, null, null, properties.defaultLimit().capacity(), properties.defaultLimit().period());
+        //Um balde ocioso so pode sumir depois de ter se enchido de novo
+        Duration idleTimeout = properties.idleTimeout();
+        for (Route route : routes) {
+            if (route.period().compareTo(idleTimeout) > 0) idleTimeout = route.period();
+        }
+        if (defaultRoute.period().compareTo(idleTimeout) > 0) idleTimeout = defaultRoute.period();
+        this.limiter = new RateLimiter(idleTimeout, properties.maximumKeys());
+        this.exceptionResolver = exceptionResolver;
+        this.rejected = Counter.builder("security.rate-limit.rejected")
+                .description("Requests refused by the rate limit")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        Route route = routeOf(request);
+        if (route.capacity() <= 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        TokenBucket.Probe probe = limiter.tryAcquire(new Key(route.index(), subject(request)), route.capacity(), route.period());
+        response.setHeader("RateLimit-Limit", String.valueOf(probe.limit()));
+        response.setHeader("RateLimit-Remaining", String.valueOf(probe.remaining()));
+        response.setHeader("RateLimit-Reset", String.valueOf(seconds(probe.resetNanos())));
+        response.setHeader("RateLimit-Policy", route.policy());
+        if (!probe.allowed()) {
+            rejected.increment();
+            exceptionResolver.resolveException(request, response, null,
+                    new TooManyRequests("Too many requests. Try again later.", Duration.ofNanos(probe.retryAfterNanos())));
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private Route routeOf(HttpServletRequest request) {
+        if (routes.isEmpty()) return defaultRoute;
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        for (Route route : routes) {
+            if (route.matches(request.getMethod(), path)) return route;
+        }
+        return defaultRoute;
+    }
+
+    private static String subject(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User user && user.getId() != null) {
+            return "user:" + user.getId();
+        }
+        //Atras de proxy, server.forward-headers-strategy faz o getRemoteAddr devolver o cliente
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static long seconds(long nanos) {
+        return (nanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND;
+    }
+
+    private record Key(int route, String subject) { }
+
+    private record Route(int index, String method, PathPattern pattern, int capacity, Duration period) {
+
+        static Route of(int index, RateLimitProperties.Route route) {
+            return new Route(index, route.method(), PathPatternParser.defaultInstance.parse(route.pattern()), route.capacity(), route.period());
+        }
+
+        boolean matches(String requestMethod, PathContainer path) {
+            return (method == null || method.equalsIgnoreCase(requestMethod)) && pattern.matches(path);
+        }
+
+        String policy() {
+            return capacity + ";w=" + period.toSeconds();
+        }
+    }
+}
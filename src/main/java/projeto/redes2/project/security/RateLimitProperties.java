@@ -0,0 +1,21 @@
+package projeto.redes2.project.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * {@code routes} are checked in order and the first whose method and path pattern match applies;
+ * any other request falls under {@code defaultLimit}. Each limit allows {@code capacity} requests
+ * per {@code period}, per authenticated user or, without one, per client address.
+ */
+@ConfigurationProperties("api.security.rate-limit")
+public record RateLimitProperties(@DefaultValue("true") boolean enabled, @DefaultValue Limit defaultLimit,
+        @DefaultValue List<Route> routes, @DefaultValue("1h") Duration idleTimeout,
+        @DefaultValue("100000") long maximumKeys) {
+
+    public record Limit(@DefaultValue("300") int capacity, @DefaultValue("1m") Duration period) { }
+
+    public record Route(String method, String pattern, int capacity, Duration period) { }
+}
@@ -0,0 +1,118 @@
+package projeto.redes2.project.security;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import projeto.redes2.project.core.cache.TwoTierCache;
+import projeto.redes2.project.dto.ResponseDTO;
+import projeto.redes2.project.dto.UserDTO;
+import projeto.redes2.project.exception.InvalidToken;
+import projeto.redes2.project.model.RefreshToken;
+import projeto.redes2.project.model.User;
+import projeto.redes2.project.repository.RefreshTokenRepository;
+import projeto.redes2.project.repository.UserRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Issues access/refresh token pairs. Every refresh rotates the refresh token; presenting one that
+ * was already rotated means it leaked, so its whole family is revoked, access tokens included.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository repository;
+    private final UserRepository userRepository;
+    private final TokenService tokenService;
+    private final TokenRevocationList revocationList;
+    private final TwoTierCache<User> userCache;
+    private final TokenProperties properties;
+
+    @Transactional
+    public ResponseDTO issue(User user) {
+        return issue(user, UUID.randomUUID().toString());
+    }
+
+    //noRollbackFor: a revogacao da familia precisa ser gravada mesmo com o 401
+    @Transactional(noRollbackFor = InvalidToken.class)
+    public ResponseDTO rotate(String refreshToken) {
+        RefreshToken current = refreshToken == null ? null : repository.findByTokenHash(hash(refreshToken));
+        Instant now = Instant.now();
+        if (current == null || current.getExpiresAt().isBefore(now)) {
+            throw new InvalidToken("The refresh token is invalid or expired.");
+        }
+        if (repository.markRotated(current.getId(), now) == 0) {
+            log.warn("Refresh token reused, revoking session family {} of user {}", current.getFamily(), current.getUserId());
+            revokeFamily(current.getFamily(), now);
+            throw new InvalidToken("The refresh token was already used.");
+        }
+        User user = userCache.get(current.getUserId(), userRepository::findById)
+                .orElseThrow(() -> new InvalidToken("The refresh token is invalid or expired."));
+        return issue(user, current.getFamily());
+    }
+
+    /**
+     * Logout: revokes the presented access token and the refresh token family it was issued with.
+     */
+    @Transactional
+    public void revoke(DecodedJWT accessToken) {
+        String tokenId = accessToken.getId();
+        if (tokenId == null) return;
+        revocationList.revoke(tokenId, accessToken.getExpiresAtAsInstant());
+        RefreshToken session = repository.findByAccessJti(tokenId);
+        if (session != null) {
+            revokeFamily(session.getFamily(), Instant.now());
+        }
+    }
+
+    private void revokeFamily(String family, Instant now) {
+        repository.revokeFamily(family, now);
+        Duration accessTtl = properties.accessTtl();
+        for (RefreshToken token : repository.findByFamily(family)) {
+            Instant accessExpiresAt = token.getCreatedAt().plus(accessTtl);
+            if (accessExpiresAt.isAfter(now)) {
+                revocationList.revoke(token.getAccessJti(), accessExpiresAt);
+            }
+        }
+    }
+
+    private ResponseDTO issue(User user, String family) {
+        String tokenId = UUID.randomUUID().toString();
+        String accessToken = tokenService.generateToken(user, tokenId);
+        byte[] secret = new byte[32];
+        RANDOM.nextBytes(secret);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+        Instant now = Instant.now();
+        repository.save(new RefreshToken(null, hash(refreshToken), family, tokenId, user.getId(), now, now.plus(properties.refreshTtl()), null));
+        return new ResponseDTO(UserDTO.fromEntity(user), accessToken, refreshToken);
+    }
+
+    @Scheduled(fixedDelayString = "${api.security.refresh-token.cleanup-interval:PT1H}")
+    @Transactional
+    public void deleteExpired() {
+        repository.deleteExpired(Instant.now());
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
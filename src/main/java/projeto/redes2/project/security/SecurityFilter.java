@@ -1,5 +1,7 @@
 package projeto.redes2.project.security;
 
+import projeto.redes2.project.core.cache.TwoTierCache;
+import projeto.redes2.project.enums.Roles;
 import projeto.redes2.project.exception.EntityNotFound;
 import projeto.redes2.project.model.User;
 import projeto.redes2.project.repository.UserRepository;
@@ -15,35 +17,68 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 import java.util.Collections;
+import java.util.Optional;
 
 @Component
 public class SecurityFilter extends OncePerRequestFilter {
 
+    public static final String VALIDATE_BATCH = "/auth/validate/batch";
+
     @Autowired
     TokenService tokenService;
     
     @Autowired
     UserRepository userRepository;
 
+    @Autowired
+    PrincipalCache principalCache;
+
+    @Autowired
+    TwoTierCache<User> userCache;
+
+    @Autowired
+    TokenRevocationList revocationList;
+
     @SuppressWarnings("null")
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         var token = this.recoverToken(request);
-        var login = tokenService.validateToken(token);
-
-        
-        if(login != null){
-            User userFindEmail = userRepository.findByEmail(login);
-            
-            if(userFindEmail == null) throw new EntityNotFound("Usuário não encontrado");
+        User principal = token == null ? null : this.recoverPrincipal(token);
 
-            var authorities = Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"));
-            var authentication = new UsernamePasswordAuthenticationToken(userFindEmail, null, authorities);
+        if(principal != null){
+            var role = principal.getRole() == null ? Roles.USER.name() : principal.getRole();
+            var authorities = Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role));
+            var authentication = new UsernamePasswordAuthenticationToken(principal, null, authorities);
             SecurityContextHolder.getContext().setAuthentication(authentication);
         }
         filterChain.doFilter(request, response);
     }
 
+    //Endpoints de /auth sao publicos e validam o token por conta propria, menos a validacao em lote
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getServletPath();
+        return path.startsWith("/auth/") && !path.equals(VALIDATE_BATCH);
+    }
+
+    private User recoverPrincipal(String token){
+        //A revogacao vale tambem para tokens ja em cache, por isso vem antes
+        var cached = principalCache.get(token);
+        if(cached != null) return revocationList.isRevoked(cached.tokenId()) ? null : cached.user();
+
+        var decoded = tokenService.verify(token);
+        if(decoded == null || revocationList.isRevoked(decoded.getId())) return null;
+
+        String email = decoded.getSubject();
+        //Antes da consulta: se o usuario for invalidado no meio, o que foi lido nao vai para o cache
+        long stamp = principalCache.stamp(decoded.getClaim(TokenService.CLAIM_USER_ID).asLong());
+        User userFindEmail = userCache.getByKey("email", email, User::getEmail, () -> Optional.ofNullable(userRepository.findByEmail(email))).orElse(null);
+        if(userFindEmail == null) throw new EntityNotFound("Usuário não encontrado");
+
+        principalCache.put(token, userFindEmail, decoded.getId(), decoded.getExpiresAtAsInstant(), stamp);
+        return userFindEmail;
+    }
+
     private String recoverToken(HttpServletRequest request){
         var authHeader = request.getHeader("Authorization");
         if(authHeader == null) return null;
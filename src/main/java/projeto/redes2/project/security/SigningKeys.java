@@ -0,0 +1,76 @@
+package projeto.redes2.project.security;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keys rotated or retired at runtime, kept in {@code signing_key} so they survive restarts and
+ * reach every instance: each one reloads the table every {@code api.security.token.keys.refresh-interval}.
+ * Cached principals of a key that stops being accepted are evicted at once on the instance that
+ * retired it and on the next reload elsewhere.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SigningKeys {
+
+    private final JdbcTemplate jdbc;
+    private final TokenService tokenService;
+    private final PrincipalCache principalCache;
+
+    @Transactional
+    public void rotate(String keyId, String secret) {
+        LocalDateTime now = now();
+        jdbc.update("UPDATE signing_key SET active = FALSE WHERE active = TRUE");
+        jdbc.update("INSERT INTO signing_key (kid, secret, active, created_at) VALUES (?, ?, TRUE, ?) "
+                + "ON DUPLICATE KEY UPDATE secret = VALUES(secret), active = TRUE, retired_at = NULL", keyId, secret, now);
+    }
+
+    @Transactional
+    public void retire(String keyId) {
+        if (tokenService.activeKeyId().equals(keyId)) {
+            throw new IllegalArgumentException(String.format("Key '%s' is active and cannot be retired.", keyId));
+        }
+        LocalDateTime now = now();
+        jdbc.update("INSERT INTO signing_key (kid, secret, active, created_at, retired_at) VALUES (?, NULL, FALSE, ?, ?) "
+                + "ON DUPLICATE KEY UPDATE secret = NULL, active = FALSE, retired_at = VALUES(retired_at)", keyId, now, now);
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${api.security.token.keys-refresh-interval:PT5S}",
+            initialDelayString = "${api.security.token.keys-refresh-interval:PT5S}")
+    public void refresh() {
+        Map<String, String> stored = new LinkedHashMap<>();
+        Set<String> retired = new HashSet<>();
+        String[] active = new String[1];
+        jdbc.query("SELECT kid, secret, active, retired_at FROM signing_key ORDER BY created_at", rs -> {
+            String keyId = rs.getString("kid");
+            if (rs.getObject("retired_at") != null) {
+                retired.add(keyId);
+                return;
+            }
+            stored.put(keyId, rs.getString("secret"));
+            if (rs.getBoolean("active")) active[0] = keyId;
+        });
+        for (String removed : tokenService.apply(active[0], stored, retired)) {
+            log.info("Signing key {} is no longer accepted, evicting its cached principals", removed);
+            principalCache.evictKey(removed);
+        }
+    }
+
+    private static LocalDateTime now() {
+        return LocalDateTime.ofInstant(Instant.now(), ZoneOffset.UTC);
+    }
+}
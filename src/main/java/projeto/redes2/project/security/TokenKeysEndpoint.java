@@ -0,0 +1,51 @@
+package projeto.redes2.project.security;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+import lombok.RequiredArgsConstructor;
+import java.util.Map;
+
+/**
+ * Rotates JWT signing keys at runtime: {@code POST /actuator/tokenkeys {"keyId": ..., "secret": ...}}
+ * starts signing with a new key, {@code DELETE /actuator/tokenkeys/{keyId}} stops accepting an old one.
+ * Both are stored by {@link SigningKeys}, so the other instances follow within its refresh interval.
+ */
+@Component
+@Endpoint(id = "tokenkeys")
+@RequiredArgsConstructor
+public class TokenKeysEndpoint {
+
+    private final TokenService tokenService;
+    private final SigningKeys signingKeys;
+
+    @ReadOperation
+    public Map<String, Object> keys() {
+        return Map.of("active", tokenService.activeKeyId(), "keys", tokenService.keyIds());
+    }
+
+    @WriteOperation
+    public Map<String, Object> rotate(String keyId, String secret) {
+        if (keyId == null || keyId.isBlank() || secret == null || secret.isBlank()) {
+            throw new InvalidEndpointRequestException("keyId and secret are required", "keyId and secret are required");
+        }
+        signingKeys.rotate(keyId, secret);
+        signingKeys.refresh();
+        return keys();
+    }
+
+    @DeleteOperation
+    public Map<String, Object> retire(@Selector String keyId) {
+        try {
+            signingKeys.retire(keyId);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+        signingKeys.refresh();
+        return keys();
+    }
+}
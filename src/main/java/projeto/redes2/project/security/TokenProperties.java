@@ -0,0 +1,16 @@
+package projeto.redes2.project.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * {@code secret} is the key tokens without a {@code kid} header were signed with;
+ * {@code keys} holds any additional {@code kid -> secret} pairs still accepted for verification.
+ * Access tokens live for {@code accessTtl}; the refresh tokens that renew them for {@code refreshTtl}.
+ */
+@ConfigurationProperties("api.security.token")
+public record TokenProperties(String secret, @DefaultValue(TokenService.DEFAULT_KEY_ID) String activeKid,
+        @DefaultValue Map<String, String> keys, @DefaultValue("15m") Duration accessTtl,
+        @DefaultValue("30d") Duration refreshTtl) { }
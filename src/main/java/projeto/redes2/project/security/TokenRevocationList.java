@@ -0,0 +1,156 @@
+package projeto.redes2.project.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import projeto.redes2.project.core.cache.BloomFilter;
+import projeto.redes2.project.model.RevokedToken;
+import projeto.redes2.project.repository.RevokedTokenRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked access token ids ({@code jti}), kept in memory so checking a token never reaches the
+ * database. A Bloom filter answers the common "not revoked" case; only its positives, true or
+ * false, go to the exact set. Rows revoked by other instances are picked up incrementally by id
+ * (see {@link #refresh()}), and the whole list is rebuilt from the unexpired rows from time to
+ * time, since a Bloom filter cannot forget entries.
+ */
+@Component
+public class TokenRevocationList {
+
+    private final RevokedTokenRepository repository;
+    private final int expectedEntries;
+    private final double falsePositiveRate;
+    private final Counter exactLookups;
+
+    private final Duration gapTimeout;
+
+    private volatile Snapshot snapshot;
+    private long lastSeenId;
+    //Faixas de ids ainda nao vistos abaixo de lastSeenId, com o momento em que apareceram
+    private final List<Gap> gaps = new ArrayList<>();
+
+    public TokenRevocationList(RevokedTokenRepository repository, MeterRegistry meterRegistry,
+            @Value("${api.security.revocation.expected-entries:100000}") int expectedEntries,
+            @Value("${api.security.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+            @Value("${api.security.revocation.gap-timeout:1m}") Duration gapTimeout) {
+        this.repository = repository;
+        this.gapTimeout = gapTimeout;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.snapshot = new Snapshot(BloomFilter.create(expectedEntries, falsePositiveRate), ConcurrentHashMap.newKeySet());
+        this.exactLookups = Counter.builder("security.revocation.exact-lookups")
+                .description("Revocation checks the Bloom filter could not answer alone")
+                .register(meterRegistry);
+        Gauge.builder("security.revocation.entries", this, list -> list.snapshot.revoked().size())
+                .description("Revoked token ids held in memory")
+                .register(meterRegistry);
+        Gauge.builder("security.revocation.gaps", this, list -> list.gapCount())
+                .description("Id ranges the revocation poll is still waiting to see committed")
+                .register(meterRegistry);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null) return false;
+        Snapshot current = this.snapshot;
+        if (!current.filter().mightContain(tokenId)) return false;
+        exactLookups.increment();
+        return current.revoked().contains(tokenId);
+    }
+
+    /**
+     * Persists the revocation so the other instances see it, and applies it here once the
+     * transaction commits.
+     */
+    public synchronized void revoke(String tokenId, Instant expiresAt) {
+        if (tokenId == null || expiresAt == null || expiresAt.isBefore(Instant.now()) || isRevoked(tokenId)) return;
+        if (!repository.existsByJti(tokenId)) {
+            repository.save(new RevokedToken(null, tokenId, expiresAt));
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            this.snapshot.add(tokenId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                snapshot.add(tokenId);
+            }
+        });
+    }
+
+    /**
+     * Ids are taken at insert but become visible at commit, so a lower id can show up after a
+     * higher one was read. The holes left behind are kept as id ranges and read again with
+     * {@code BETWEEN} until they are older than {@code api.security.revocation.gap-timeout};
+     * after that they are taken as rolled back.
+     */
+    @Scheduled(fixedDelayString = "${api.security.revocation.refresh-interval:PT5S}",
+            initialDelayString = "${api.security.revocation.refresh-interval:PT5S}")
+    public synchronized void refresh() {
+        Instant now = Instant.now();
+        gaps.removeIf(gap -> gap.seenAt().isBefore(now.minus(gapTimeout)));
+        Snapshot current = this.snapshot;
+        List<Gap> remaining = new ArrayList<>();
+        for (Gap gap : gaps) {
+            long next = gap.from();
+            for (RevokedToken token : repository.findByIdBetweenOrderById(gap.from(), gap.to())) {
+                current.add(token.getJti());
+                if (token.getId() > next) remaining.add(new Gap(next, token.getId() - 1, gap.seenAt()));
+                next = token.getId() + 1;
+            }
+            if (next <= gap.to()) remaining.add(new Gap(next, gap.to(), gap.seenAt()));
+        }
+        gaps.clear();
+        gaps.addAll(remaining);
+        for (RevokedToken token : repository.findByIdGreaterThanOrderById(lastSeenId)) {
+            current.add(token.getJti());
+            if (token.getId() > lastSeenId + 1) gaps.add(new Gap(lastSeenId + 1, token.getId() - 1, now));
+            lastSeenId = token.getId();
+        }
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${api.security.revocation.rebuild-interval:PT1H}",
+            initialDelayString = "${api.security.revocation.rebuild-interval:PT1H}")
+    public synchronized void rebuild() {
+        Instant now = Instant.now();
+        //Na carga inicial a marca vem da tabela inteira, antes de apagar os expirados: os ids
+        //apagados nao viram buracos. Depois quem avanca lastSeenId e o refresh
+        if (lastSeenId == 0) lastSeenId = repository.maxId();
+        repository.deleteExpired(now);
+        List<RevokedToken> active = repository.findByExpiresAtAfter(now);
+        //Folga para as revogacoes ate o proximo rebuild nao degradarem o filtro
+        Snapshot rebuilt = new Snapshot(BloomFilter.create(Math.max(expectedEntries, active.size() * 2), falsePositiveRate),
+                ConcurrentHashMap.newKeySet(active.size()));
+        for (RevokedToken token : active) {
+            rebuilt.add(token.getJti());
+        }
+        this.snapshot = rebuilt;
+    }
+
+    private synchronized int gapCount() {
+        return gaps.size();
+    }
+
+    private record Gap(long from, long to, Instant seenAt) { }
+
+    private record Snapshot(BloomFilter filter, Set<String> revoked) {
+
+        void add(String tokenId) {
+            revoked.add(tokenId);
+            filter.put(tokenId);
+        }
+    }
+}
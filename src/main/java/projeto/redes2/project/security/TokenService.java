@@ -1,49 +1,140 @@
 package projeto.redes2.project.security;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTCreationException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import projeto.redes2.project.model.User;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import java.time.Duration;
 import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 @Service
 public class TokenService {
-    @Value("${api.security.token.secret}")
-    private String secret;
+
+    static final String DEFAULT_KEY_ID = "default";
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_NAME = "name";
+    public static final String CLAIM_ROLE = "role";
+    private static final String ISSUER = "login-auth-api";
+
+    private volatile KeyRing keyRing;
+    private final Map<String, String> configured;
+    private final String configuredActiveKid;
+    private final Duration accessTtl;
+    private final Timer verifyTimer;
+
+    public TokenService(TokenProperties properties, MeterRegistry meterRegistry){
+        this.accessTtl = properties.accessTtl();
+        this.verifyTimer = Timer.builder("security.jwt.verify")
+                .description("Token decoding and signature verification")
+                .register(meterRegistry);
+        Map<String, String> secrets = new LinkedHashMap<>();
+        secrets.put(DEFAULT_KEY_ID, properties.secret());
+        secrets.putAll(properties.keys());
+        this.configured = Map.copyOf(secrets);
+        this.configuredActiveKid = properties.activeKid();
+        this.keyRing = KeyRing.of(properties.activeKid(), secrets);
+    }
+
     public String generateToken(User user){
-        try {
-            Algorithm algorithm = Algorithm.HMAC256(secret);
+        return generateToken(user, UUID.randomUUID().toString());
+    }
 
-            String token = JWT.create()
-                    .withIssuer("login-auth-api")
+    /**
+     * The {@code tokenId} becomes the {@code jti} claim, which is what gets revoked on logout.
+     */
+    public String generateToken(User user, String tokenId){
+        KeyRing ring = this.keyRing;
+        try {
+            return JWT.create()
+                    .withKeyId(ring.activeKid())
+                    .withIssuer(ISSUER)
+                    .withJWTId(tokenId)
                     .withSubject(user.getEmail())
+                    .withClaim(CLAIM_USER_ID, user.getId())
+                    .withClaim(CLAIM_NAME, user.getName())
+                    .withClaim(CLAIM_ROLE, user.getRole())
                     .withExpiresAt(this.generateExpirationDate())
-                    .sign(algorithm);
-            return token;
+                    .sign(ring.signer());
         } catch (JWTCreationException exception){
             throw new RuntimeException("Error while authenticating");
         }
     }
 
     public String validateToken(String token){
+        DecodedJWT decoded = verify(token);
+        return decoded == null ? null : decoded.getSubject();
+    }
+
+    public DecodedJWT verify(String token){
+        if(token == null) return null;
+        return verifyTimer.record(() -> verifySignature(token));
+    }
+
+    private DecodedJWT verifySignature(String token){
         try {
-            Algorithm algorithm = Algorithm.HMAC256(secret);
-            return JWT.require(algorithm)
-                    .withIssuer("login-auth-api")
-                    .build()
-                    .verify(token)
-                    .getSubject();
+            DecodedJWT decoded = JWT.decode(token);
+            String keyId = decoded.getKeyId() == null ? DEFAULT_KEY_ID : decoded.getKeyId();
+            JWTVerifier verifier = this.keyRing.verifiers().get(keyId);
+            return verifier == null ? null : verifier.verify(decoded);
         } catch (JWTVerificationException exception) {
             return null;
         }
     }
 
+    public String activeKeyId(){
+        return this.keyRing.activeKid();
+    }
+
+    public Set<String> keyIds(){
+        return this.keyRing.verifiers().keySet();
+    }
+
+    /**
+     * Rebuilds the keys from the configured ones plus those stored by {@link SigningKeys}, minus
+     * the retired ones; the stored active key, when there is one, signs new tokens.
+     *
+     * @return the key ids accepted before and not anymore
+     */
+    public synchronized Set<String> apply(String storedActiveKid, Map<String, String> stored, Set<String> retired){
+        Map<String, String> secrets = new LinkedHashMap<>(this.configured);
+        secrets.putAll(stored);
+        secrets.keySet().removeAll(retired);
+        String activeKid = storedActiveKid != null && secrets.containsKey(storedActiveKid) ? storedActiveKid : this.configuredActiveKid;
+        KeyRing previous = this.keyRing;
+        this.keyRing = KeyRing.of(activeKid, secrets);
+        Set<String> removed = new LinkedHashSet<>(previous.secrets().keySet());
+        removed.removeAll(secrets.keySet());
+        return removed;
+    }
+
     private Instant generateExpirationDate(){
-        return LocalDateTime.now().plusHours(2).toInstant(ZoneOffset.of("-03:00"));
+        return Instant.now().plus(this.accessTtl);
+    }
+
+    private record KeyRing(String activeKid, Algorithm signer, Map<String, String> secrets, Map<String, JWTVerifier> verifiers) {
+
+        static KeyRing of(String activeKid, Map<String, String> secrets){
+            if(!secrets.containsKey(activeKid)) {
+                throw new IllegalArgumentException(String.format("No secret configured for key '%s'.", activeKid));
+            }
+            Map<String, JWTVerifier> verifiers = new LinkedHashMap<>();
+            secrets.forEach((keyId, secret) -> verifiers.put(keyId, JWT.require(Algorithm.HMAC256(secret))
+                    .withIssuer(ISSUER)
+                    .build()));
+            return new KeyRing(activeKid, Algorithm.HMAC256(secrets.get(activeKid)),
+                    Collections.unmodifiableMap(secrets), Collections.unmodifiableMap(verifiers));
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,45 +1,147 @@
 package projeto.redes2.project.service;
 
-import org.springframework.security.crypto.password.PasswordEncoder;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import com.auth0.jwt.interfaces.Claim;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import io.micrometer.core.annotation.Timed;
+import projeto.redes2.project.core.cache.TwoTierCache;
+import projeto.redes2.project.security.LoginAttemptLimiter;
+import projeto.redes2.project.security.PasswordHasher;
+import projeto.redes2.project.security.RefreshTokenService;
+import projeto.redes2.project.security.TokenRevocationList;
 import projeto.redes2.project.security.TokenService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import projeto.redes2.project.dto.ResponseDTO;
+import projeto.redes2.project.dto.TokenClaimsDTO;
 import projeto.redes2.project.dto.UserDTO;
+import projeto.redes2.project.enums.Roles;
+import projeto.redes2.project.exception.BatchTooLarge;
 import projeto.redes2.project.exception.EntityNotFoundInTheAppeal;
+import projeto.redes2.project.exception.InvalidToken;
+import projeto.redes2.project.exception.TooManyRequests;
 import projeto.redes2.project.model.User;
 import projeto.redes2.project.repository.UserRepository;
 
+@Slf4j
+@Timed(value = "app.service", description = "Service method latency")
 @Service
 @RequiredArgsConstructor
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
+    private final LoginAttemptLimiter attemptLimiter;
     private final TokenService tokenService;
+    private final TwoTierCache<User> userCache;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationList revocationList;
 
-    public ResponseDTO authenticate(String email, String password) {
-        User user = userRepository.findByEmail(email);
+    @Value("${api.security.token.validate.max-batch-size:100}")
+    private int maxBatchSize;
+
+    public CompletableFuture<ResponseDTO> authenticate(String email, String password, String clientIp) {
+        attemptLimiter.checkAllowed(email, clientIp);
+        User user = findUserByEmail(email);
         if (user != null) {
-            return invalidPassword(password, user);
+            return passwordHasher.matchesAsync(password, user.getPassword())
+                    .thenApply(matches -> invalidPassword(matches, email, clientIp, password, user));
         }
+        attemptLimiter.failed(email, clientIp);
         throw new EntityNotFoundInTheAppeal("Email not found");
     }
 
+    public TokenClaimsDTO validate(String token) {
+        TokenClaimsDTO claims = claimsOf(token);
+        if (!claims.valid()) {
+            throw new InvalidToken("The token is invalid or expired.");
+        }
+        return claims;
+    }
+
+    public List<TokenClaimsDTO> validateAll(List<String> tokens) {
+        if (tokens.size() > maxBatchSize) {
+            throw new BatchTooLarge(String.format("A batch accepts at most %d tokens, %d were sent.", maxBatchSize, tokens.size()));
+        }
+        return tokens.stream().map(this::claimsOf).toList();
+    }
+
+    //So verificacao de assinatura e leitura das claims, sem banco
+    private TokenClaimsDTO claimsOf(String token) {
+        DecodedJWT decoded = tokenService.verify(token);
+        if (decoded == null || revocationList.isRevoked(decoded.getId())) {
+            return TokenClaimsDTO.INVALID;
+        }
+        Claim userId = decoded.getClaim(TokenService.CLAIM_USER_ID);
+        if (userId.isMissing() || userId.isNull()) {
+            //Tokens emitidos antes das claims: resolve o usuario pelo cache ate eles expirarem
+            User user = findUserByEmail(decoded.getSubject());
+            return user == null ? TokenClaimsDTO.INVALID
+                    : claims(user.getId(), user.getName(), user.getEmail(), user.getRole(), decoded);
+        }
+        return claims(userId.asLong(), decoded.getClaim(TokenService.CLAIM_NAME).asString(), decoded.getSubject(),
+                decoded.getClaim(TokenService.CLAIM_ROLE).asString(), decoded);
+    }
+
+    private static TokenClaimsDTO claims(Long id, String name, String email, String role, DecodedJWT decoded) {
+        return new TokenClaimsDTO(true, id, name, email, role == null ? Roles.USER.name() : role, decoded.getExpiresAtAsInstant());
+    }
+
+    public ResponseDTO refresh(String refreshToken) {
+        return refreshTokenService.rotate(refreshToken);
+    }
+
+    public void logout(String token) {
+        DecodedJWT decoded = tokenService.verify(token);
+        if (decoded == null) {
+            throw new InvalidToken("The token is invalid or expired.");
+        }
+        refreshTokenService.revoke(decoded);
+    }
+
     public UserDTO findByEmail(String email){
-        User user = userRepository.findByEmail(email);
+        User user = findUserByEmail(email);
         if(user != null){
             return UserDTO.fromEntity(user);
         }
         return null;
     }
 
-    private ResponseDTO invalidPassword(String password, User user){
-        if(passwordEncoder.matches(password, user.getPassword())){
-            String token = this.tokenService.generateToken(user);
-            return new ResponseDTO(UserDTO.fromEntity(user), token);
+    public User findUserByEmail(String email) {
+        return userCache.getByKey("email", email, User::getEmail, () -> Optional.ofNullable(userRepository.findByEmail(email))).orElse(null);
+    }
+
+    private ResponseDTO invalidPassword(boolean matches, String email, String clientIp, String password, User user){
+        if(matches){
+            attemptLimiter.succeeded(email, clientIp);
+            if (passwordHasher.upgradeEncoding(user.getPassword())) {
+                rehash(user, password);
+            }
+            return refreshTokenService.issue(user);
         }else{
+            attemptLimiter.failed(email, clientIp);
             throw new EntityNotFoundInTheAppeal("Invalid password");
         }
     }
-}
\ No newline at end of file
+
+    //Atualiza o hash para o custo configurado sem atrasar a resposta do login
+    private void rehash(User user, String password) {
+        try {
+            passwordHasher.encodeAsync(password)
+                    .thenAccept(hash -> {
+                        userRepository.updatePassword(user.getId(), user.getPassword(), hash);
+                        userCache.invalidate(user.getId());
+                    })
+                    .exceptionally(e -> {
+                        log.warn("Could not rehash the password of user {}", user.getId(), e);
+                        return null;
+                    });
+        } catch (TooManyRequests e) {
+            log.debug("Hashing queue is full, user {} will be rehashed on a later login", user.getId());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package projeto.redes2.project.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import projeto.redes2.project.core.outbox.ChangeSink;
+import projeto.redes2.project.dto.ChangeEventDTO;
+
+/**
+ * Drains the outbox into every {@link ChangeSink}, in batches and in id order. Each sink has its
+ * own position, so a failing sink neither blocks nor repeats the others. The position row stays
+ * locked while its batch is delivered, which keeps two instances from delivering the same batch.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OutboxRelay {
+
+	private final NamedParameterJdbcTemplate jdbc;
+	private final TransactionTemplate transaction;
+	private final OutboxService outbox;
+	private final ObjectProvider<ChangeSink> sinks;
+
+	@Value("${api.outbox.relay.batch-size:500}")
+	private int batchSize;
+
+	@Value("${api.outbox.retention:7d}")
+	private Duration retention;
+
+	@Scheduled(fixedDelayString = "${api.outbox.relay.interval:PT1S}",
+			initialDelayString = "${api.outbox.relay.interval:PT1S}")
+	public void drain() {
+		for(ChangeSink sink : sinks.orderedStream().toList()) {
+			try {
+				Integer delivered;
+				do {
+					delivered = transaction.execute(status -> relay(sink));
+				} while(delivered != null && delivered == batchSize);
+			} catch(RuntimeException e) {
+				log.warn("Outbox delivery to sink '{}' failed, retrying on the next round", sink.name(), e);
+			}
+		}
+	}
+
+	private int relay(ChangeSink sink) {
+		long position = lockPosition(sink.name());
+		List<ChangeEventDTO> events = outbox.readAfter(position, batchSize);
+		if(events.isEmpty()) return 0;
+		sink.deliver(events);
+		jdbc.update("UPDATE outbox_position SET last_id = :lastId WHERE sink = :sink",
+				Map.of("lastId", events.get(events.size() - 1).id(), "sink", sink.name()));
+		return events.size();
+	}
+
+	private long lockPosition(String sink) {
+		List<Long> position = jdbc.queryForList("SELECT last_id FROM outbox_position WHERE sink = :sink FOR UPDATE", Map.of("sink", sink), Long.class);
+		if(!position.isEmpty()) return position.get(0);
+		jdbc.update("INSERT INTO outbox_position (sink, last_id) VALUES (:sink, 0)", Map.of("sink", sink));
+		return 0L;
+	}
+
+	/**
+	 * Drops events older than the retention, but never one a sink has not received yet.
+	 */
+	@Scheduled(fixedDelayString = "${api.outbox.prune-interval:PT1H}",
+			initialDelayString = "${api.outbox.prune-interval:PT1H}")
+	public void prune() {
+		LocalDateTime before = LocalDateTime.ofInstant(Instant.now().minus(retention), ZoneOffset.UTC);
+		List<String> names = sinks.orderedStream().map(ChangeSink::name).toList();
+		long delivered = Long.MAX_VALUE;
+		if(!names.isEmpty()) {
+			List<Long> positions = jdbc.queryForList("SELECT last_id FROM outbox_position WHERE sink IN (:names)", Map.of("names", names), Long.class);
+			//Destino sem posicao ainda nao recebeu nada
+			delivered = positions.size() < names.size() ? 0L : positions.stream().mapToLong(Long::longValue).min().orElse(0L);
+		}
+		int removed = jdbc.update("DELETE FROM outbox_event WHERE created_at < :before AND id <= :delivered",
+				Map.of("before", before, "delivered", delivered));
+		if(removed > 0) {
+			log.info("Pruned {} outbox events", removed);
+		}
+	}
+}
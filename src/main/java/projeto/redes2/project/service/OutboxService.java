@@ -0,0 +1,122 @@
+package projeto.redes2.project.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import projeto.redes2.project.dto.ChangeEventDTO;
+import projeto.redes2.project.dto.ChangeFeedDTO;
+import projeto.redes2.project.enums.AggregateType;
+import projeto.redes2.project.enums.ChangeType;
+
+/**
+ * Change log of projects and users (transactional outbox). Services append to it inside their
+ * own transaction, after the write, so the event commits or rolls back with the change and,
+ * with the row lock still held, two changes of the same aggregate get ids in commit order.
+ * <p>
+ * Ids are taken at insert but become visible at commit, so a lower id may still appear after a
+ * higher one was read. Reads stop at such a gap until the event after it is older than
+ * {@code api.outbox.gap-timeout}; after that the missing ids are taken as rolled back.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+	private static final String INSERT = "INSERT INTO outbox_event (aggregate_type, aggregate_id, change_type, payload, created_at) "
+			+ "VALUES (:aggregate, :aggregateId, :type, :payload, :createdAt)";
+
+	private final NamedParameterJdbcTemplate jdbc;
+	private final ObjectMapper objectMapper;
+
+	@Value("${api.outbox.gap-timeout:10s}")
+	private Duration gapTimeout;
+
+	@Value("${api.outbox.feed.default-size:100}")
+	private int defaultFeedSize;
+
+	@Value("${api.outbox.feed.max-size:1000}")
+	private int maxFeedSize;
+
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void append(AggregateType aggregate, Long aggregateId, ChangeType type, Object payload) {
+		appendAll(List.of(new Change(aggregate, aggregateId, type, payload)));
+	}
+
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void appendAll(List<Change> changes) {
+		if(changes.isEmpty()) return;
+		//UTC explicito: a coluna e datetime e as instancias podem ter fusos diferentes
+		LocalDateTime now = LocalDateTime.ofInstant(Instant.now(), ZoneOffset.UTC);
+		SqlParameterSource[] rows = changes.stream().map(change -> new MapSqlParameterSource()
+				.addValue("aggregate", change.aggregate().name())
+				.addValue("aggregateId", change.aggregateId())
+				.addValue("type", change.type().name())
+				.addValue("payload", json(change.payload()))
+				.addValue("createdAt", now))
+				.toArray(SqlParameterSource[]::new);
+		jdbc.batchUpdate(INSERT, rows);
+	}
+
+	@Transactional(readOnly = true)
+	public ChangeFeedDTO feed(Long since, Integer size) {
+		long after = since == null ? 0L : Math.max(0L, since);
+		int limit = size == null ? defaultFeedSize : Math.max(1, Math.min(size, maxFeedSize));
+		List<ChangeEventDTO> changes = readAfter(after, limit);
+		return new ChangeFeedDTO(changes, changes.isEmpty() ? after : changes.get(changes.size() - 1).id());
+	}
+
+	/**
+	 * Up to {@code limit} events after {@code after}, in id order, cut at the first gap that
+	 * may still be filled by a transaction in flight.
+	 */
+	public List<ChangeEventDTO> readAfter(long after, int limit) {
+		List<ChangeEventDTO> rows = jdbc.query("SELECT id, aggregate_type, aggregate_id, change_type, payload, created_at FROM outbox_event "
+				+ "WHERE id > :after ORDER BY id LIMIT :limit", Map.of("after", after, "limit", limit), (rs, row) -> event(rs));
+		Instant settled = Instant.now().minus(gapTimeout);
+		List<ChangeEventDTO> events = new ArrayList<>(rows.size());
+		long expected = after + 1;
+		for(ChangeEventDTO event : rows) {
+			if(event.id() != expected && event.occurredAt().isAfter(settled)) break;
+			events.add(event);
+			expected = event.id() + 1;
+		}
+		return events;
+	}
+
+	public long lastId() {
+		Long id = jdbc.getJdbcTemplate().queryForObject("SELECT MAX(id) FROM outbox_event", Long.class);
+		return id == null ? 0L : id;
+	}
+
+	private String json(Object payload) {
+		if(payload == null) return null;
+		try {
+			return objectMapper.writeValueAsString(payload);
+		} catch(JsonProcessingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static ChangeEventDTO event(ResultSet rs) throws SQLException {
+		return new ChangeEventDTO(rs.getLong("id"), AggregateType.valueOf(rs.getString("aggregate_type")), rs.getLong("aggregate_id"),
+				ChangeType.valueOf(rs.getString("change_type")), rs.getObject("created_at", LocalDateTime.class).toInstant(ZoneOffset.UTC),
+				rs.getString("payload"));
+	}
+
+	public record Change(AggregateType aggregate, Long aggregateId, ChangeType type, Object payload) { }
+}
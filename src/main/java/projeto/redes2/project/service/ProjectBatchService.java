@@ -0,0 +1,309 @@
+package projeto.redes2.project.service;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.transaction.support.TransactionTemplate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import projeto.redes2.project.core.cache.TwoTierCache;
+import projeto.redes2.project.dto.ProjectDTO;
+import projeto.redes2.project.dto.ProjectOperationDTO;
+import projeto.redes2.project.dto.ProjectOperationResultDTO;
+import projeto.redes2.project.enums.AggregateType;
+import projeto.redes2.project.enums.BatchOperation;
+import projeto.redes2.project.enums.ChangeType;
+import projeto.redes2.project.exception.BatchTooLarge;
+
+/**
+ * Applies many project operations per request. Everything is validated up front with
+ * one set query per check, then the valid operations are written with JDBC batches,
+ * one transaction per chunk. A chunk the database rejects is replayed operation by
+ * operation, so each result points at the operation that actually failed.
+ */
+@Timed(value = "app.service", description = "Service method latency")
+@Service
+@RequiredArgsConstructor
+public class ProjectBatchService {
+
+	private static final String INSERT = "INSERT INTO project (name, description, situation, fk_user) VALUES (?, ?, ?, ?)";
+	private static final String UPDATE = "UPDATE project SET name = ?, description = ?, situation = ?, fk_user = ?, version = version + 1 WHERE id = ?";
+	private static final String DELETE = "DELETE FROM project WHERE id = ?";
+
+	private final NamedParameterJdbcTemplate jdbc;
+	private final TransactionTemplate transaction;
+	private final TwoTierCache<ProjectDTO> projectCache;
+	private final ProjectStatsService stats;
+	private final OutboxService outbox;
+	private final ObjectMapper objectMapper;
+
+	@Value("${api.project.batch.chunk-size:500}")
+	private int chunkSize;
+
+	@Value("${api.project.batch.max-operations:10000}")
+	private int maxOperations;
+
+	public List<ProjectOperationResultDTO> execute(List<ProjectOperationDTO> operations) {
+		if(operations.size() > maxOperations) {
+			throw new BatchTooLarge(String.format("A batch accepts at most %d operations, %d were sent.", maxOperations, operations.size()));
+		}
+		ProjectOperationResultDTO[] results = new ProjectOperationResultDTO[operations.size()];
+		List<Integer> valid = validate(operations, results);
+
+		for(int from = 0; from < valid.size(); from += chunkSize) {
+			List<Integer> chunk = valid.subList(from, Math.min(from + chunkSize, valid.size()));
+			try {
+				transaction.executeWithoutResult(status -> writeChunk(operations, chunk, results));
+			} catch(DataAccessException e) {
+				chunk.forEach(index -> writeAlone(operations, index, results));
+			}
+		}
+		return Arrays.asList(results);
+	}
+
+	private List<Integer> validate(List<ProjectOperationDTO> operations, ProjectOperationResultDTO[] results) {
+		Set<Long> userIds = new HashSet<>();
+		Set<Long> projectIds = new HashSet<>();
+		Set<String> names = new HashSet<>();
+		for(ProjectOperationDTO op : operations) {
+			if(op == null) continue;
+			if(op.userId() != null) userIds.add(op.userId());
+			if(op.id() != null) projectIds.add(op.id());
+			if(op.name() != null) names.add(op.name());
+		}
+
+		Set<Long> existingUsers = existingUsers(userIds);
+		Set<Long> existingProjects = existingProjects(projectIds);
+		Map<String, Long> takenNames = takenNames(userIds, names);
+
+		Map<Long, Integer> touchedProjects = new HashMap<>();
+		Set<Long> deletedProjects = new HashSet<>();
+		Map<String, Integer> claimedNames = new HashMap<>();
+		List<Integer> valid = new ArrayList<>();
+
+		for(int i = 0; i < operations.size(); i++) {
+			ProjectOperationDTO op = operations.get(i);
+			String problem = structuralProblem(op);
+			if(problem != null) {
+				results[i] = failure(i, op, HttpStatus.BAD_REQUEST, problem);
+				continue;
+			}
+			if(op.operation() != BatchOperation.CREATE) {
+				if(!existingProjects.contains(op.id())) {
+					results[i] = failure(i, op, HttpStatus.NOT_FOUND, String.format("Project with id %d is not registered.", op.id()));
+					continue;
+				}
+				Integer previous = touchedProjects.putIfAbsent(op.id(), i);
+				if(previous != null) {
+					results[i] = failure(i, op, HttpStatus.BAD_REQUEST, String.format("Project with id %d is already changed by operation %d.", op.id(), previous));
+					continue;
+				}
+			}
+			if(op.operation() != BatchOperation.DELETE) {
+				if(!existingUsers.contains(op.userId())) {
+					results[i] = failure(i, op, HttpStatus.NOT_FOUND, String.format("User with id %d is not registered.", op.userId()));
+					continue;
+				}
+				String key = nameKey(op.userId(), op.name());
+				Long owner = takenNames.get(key);
+				boolean taken = owner != null && !owner.equals(op.id()) && !deletedProjects.contains(owner);
+				if(taken || claimedNames.putIfAbsent(key, i) != null) {
+					results[i] = failure(i, op, HttpStatus.BAD_REQUEST, String.format("There is already a project called '%s'.", op.name()));
+					continue;
+				}
+			}
+			if(op.operation() == BatchOperation.DELETE) {
+				deletedProjects.add(op.id());
+			}
+			valid.add(i);
+		}
+		return valid;
+	}
+
+	private String structuralProblem(ProjectOperationDTO op) {
+		if(op == null || op.operation() == null) {
+			return "Property 'operation' is required.";
+		}
+		if(op.operation() == BatchOperation.CREATE && op.id() != null) {
+			return "Property 'id' is not allowed when creating a project.";
+		}
+		if(op.operation() != BatchOperation.CREATE && op.id() == null) {
+			return "Property 'id' is required.";
+		}
+		if(op.operation() == BatchOperation.DELETE) {
+			return null;
+		}
+		if(op.name() == null || op.name().isBlank() || op.name().length() > 50) {
+			return "Property 'name' is required and accepts at most 50 characters.";
+		}
+		if(op.description() == null || op.description().isBlank() || op.description().length() > 120) {
+			return "Property 'description' is required and accepts at most 120 characters.";
+		}
+		if(op.situation() == null) {
+			return "Property 'situation' is required.";
+		}
+		if(op.userId() == null) {
+			return "Property 'userId' is required.";
+		}
+		return null;
+	}
+
+	private Set<Long> existingUsers(Set<Long> ids) {
+		if(ids.isEmpty()) return Set.of();
+		return new HashSet<>(jdbc.queryForList("SELECT id FROM user WHERE id IN (:ids)", Map.of("ids", ids), Long.class));
+	}
+
+	private Set<Long> existingProjects(Set<Long> ids) {
+		if(ids.isEmpty()) return Set.of();
+		return new HashSet<>(jdbc.queryForList("SELECT id FROM project WHERE id IN (:ids)", Map.of("ids", ids), Long.class));
+	}
+
+	private Map<String, Long> takenNames(Set<Long> userIds, Set<String> names) {
+		if(userIds.isEmpty() || names.isEmpty()) return Map.of();
+		return jdbc.query("SELECT id, name, fk_user FROM project WHERE fk_user IN (:users) AND name IN (:names)",
+				Map.of("users", userIds, "names", names),
+				(rs, row) -> Map.entry(nameKey(rs.getLong("fk_user"), rs.getString("name")), rs.getLong("id")))
+				.stream().collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (first, second) -> first));
+	}
+
+	//Deletes antes de updates e creates, para que nomes liberados no mesmo chunk possam ser reutilizados
+	private void writeChunk(List<ProjectOperationDTO> operations, List<Integer> chunk, ProjectOperationResultDTO[] results) {
+		List<Integer> deletes = ofType(operations, chunk, BatchOperation.DELETE);
+		List<Integer> updates = ofType(operations, chunk, BatchOperation.UPDATE);
+		List<Integer> creates = ofType(operations, chunk, BatchOperation.CREATE);
+		deletes.forEach(i -> projectCache.invalidate(operations.get(i).id()));
+		updates.forEach(i -> projectCache.invalidate(operations.get(i).id()));
+		Map<Long, ProjectDTO> previous = currentState(operations, deletes, updates);
+		ProjectStatsService.Changes changes = new ProjectStatsService.Changes();
+		List<OutboxService.Change> events = new ArrayList<>(chunk.size());
+
+		if(!deletes.isEmpty()) {
+			int[] counts = jdbc.getJdbcTemplate().batchUpdate(DELETE, deletes.stream()
+					.map(i -> new Object[] { operations.get(i).id() }).toList());
+			record(operations, deletes, counts, HttpStatus.NO_CONTENT, results);
+			for(int n = 0; n < deletes.size(); n++) {
+				ProjectDTO before = previous.get(operations.get(deletes.get(n)).id());
+				if(counts[n] == 0 || before == null) continue;
+				changes.removed(before.userId(), before.situation());
+				events.add(new OutboxService.Change(AggregateType.PROJECT, before.id(), ChangeType.DELETED, before));
+			}
+		}
+		if(!updates.isEmpty()) {
+			int[] counts = jdbc.getJdbcTemplate().batchUpdate(UPDATE, updates.stream().map(i -> {
+				ProjectOperationDTO op = operations.get(i);
+				return new Object[] { op.name(), op.description(), op.situation(), op.userId(), op.id() };
+			}).toList());
+			record(operations, updates, counts, HttpStatus.OK, results);
+			for(int n = 0; n < updates.size(); n++) {
+				ProjectOperationDTO op = operations.get(updates.get(n));
+				ProjectDTO before = previous.get(op.id());
+				if(counts[n] == 0 || before == null) continue;
+				changes.removed(before.userId(), before.situation()).added(op.userId(), op.situation());
+				events.add(new OutboxService.Change(AggregateType.PROJECT, op.id(), ChangeType.UPDATED, ProjectService.updatedPayload(objectMapper,
+						new ProjectDTO(op.id(), op.name(), op.description(), op.situation(), op.userId(), null), before.userId())));
+			}
+		}
+		if(!creates.isEmpty()) {
+			insert(operations, creates, results);
+			for(Integer i : creates) {
+				ProjectOperationDTO op = operations.get(i);
+				changes.added(op.userId(), op.situation());
+				events.add(new OutboxService.Change(AggregateType.PROJECT, results[i].id(), ChangeType.CREATED,
+						new ProjectDTO(results[i].id(), op.name(), op.description(), op.situation(), op.userId(), null)));
+			}
+		}
+		stats.record(changes);
+		outbox.appendAll(events);
+	}
+
+	//Estado antes da escrita, para os contadores e o outbox; FOR UPDATE segura as linhas ate o fim do chunk
+	private Map<Long, ProjectDTO> currentState(List<ProjectOperationDTO> operations, List<Integer> deletes, List<Integer> updates) {
+		Set<Long> ids = new HashSet<>();
+		deletes.forEach(i -> ids.add(operations.get(i).id()));
+		updates.forEach(i -> ids.add(operations.get(i).id()));
+		if(ids.isEmpty()) return Map.of();
+		Map<Long, ProjectDTO> state = new HashMap<>();
+		jdbc.query("SELECT id, name, description, situation, fk_user FROM project WHERE id IN (:ids) FOR UPDATE", Map.of("ids", ids), rs -> {
+			long user = rs.getLong("fk_user");
+			Long owner = rs.wasNull() ? null : user;
+			Long id = rs.getLong("id");
+			state.put(id, new ProjectDTO(id, rs.getString("name"), rs.getString("description"), rs.getBoolean("situation"), owner, null));
+		});
+		return state;
+	}
+
+	private void insert(List<ProjectOperationDTO> operations, List<Integer> creates, ProjectOperationResultDTO[] results) {
+		jdbc.getJdbcTemplate().execute((ConnectionCallback<Void>) connection -> {
+			try(PreparedStatement statement = connection.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+				for(Integer i : creates) {
+					ProjectOperationDTO op = operations.get(i);
+					statement.setString(1, op.name());
+					statement.setString(2, op.description());
+					statement.setBoolean(3, op.situation());
+					statement.setLong(4, op.userId());
+					statement.addBatch();
+				}
+				statement.executeBatch();
+				try(ResultSet keys = statement.getGeneratedKeys()) {
+					for(Integer i : creates) {
+						Long id = keys.next() ? keys.getLong(1) : null;
+						results[i] = new ProjectOperationResultDTO(i, BatchOperation.CREATE, id, HttpStatus.CREATED.value(), null);
+					}
+				}
+			}
+			return null;
+		});
+	}
+
+	private void writeAlone(List<ProjectOperationDTO> operations, int index, ProjectOperationResultDTO[] results) {
+		try {
+			transaction.executeWithoutResult(status -> writeChunk(operations, List.of(index), results));
+		} catch(DataIntegrityViolationException e) {
+			results[index] = failure(index, operations.get(index), HttpStatus.CONFLICT, "The operation conflicts with data already registered.");
+		} catch(DataAccessException e) {
+			results[index] = failure(index, operations.get(index), HttpStatus.INTERNAL_SERVER_ERROR, "The operation could not be written.");
+		}
+	}
+
+	private void record(List<ProjectOperationDTO> operations, List<Integer> indexes, int[] counts, HttpStatus success, ProjectOperationResultDTO[] results) {
+		for(int n = 0; n < indexes.size(); n++) {
+			int i = indexes.get(n);
+			ProjectOperationDTO op = operations.get(i);
+			//SUCCESS_NO_INFO (-2) vem de batches reescritos pelo driver
+			results[i] = counts[n] == 0
+					? failure(i, op, HttpStatus.NOT_FOUND, String.format("Project with id %d is not registered.", op.id()))
+					: new ProjectOperationResultDTO(i, op.operation(), op.id(), success.value(), null);
+		}
+	}
+
+	private static List<Integer> ofType(List<ProjectOperationDTO> operations, List<Integer> chunk, BatchOperation type) {
+		return chunk.stream().filter(i -> operations.get(i).operation() == type).toList();
+	}
+
+	private static ProjectOperationResultDTO failure(int index, ProjectOperationDTO op, HttpStatus status, String detail) {
+		return new ProjectOperationResultDTO(index, op == null ? null : op.operation(), op == null ? null : op.id(), status.value(), detail);
+	}
+
+	private static String nameKey(Long userId, String name) {
+		//Mesma regra da collation do MySQL: comparacao sem diferenciar maiusculas
+		return userId + ":" + Objects.requireNonNull(name).toLowerCase(Locale.ROOT);
+	}
+}
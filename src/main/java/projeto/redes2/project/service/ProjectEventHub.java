@@ -0,0 +1,231 @@
+package projeto.redes2.project.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import projeto.redes2.project.core.sse.SseSubscriber;
+import projeto.redes2.project.dto.ChangeEventDTO;
+import projeto.redes2.project.enums.AggregateType;
+import projeto.redes2.project.enums.ChangeType;
+import projeto.redes2.project.exception.TooManyRequests;
+
+/**
+ * Pushes project changes to the owner's open {@code text/event-stream} connections. Each instance
+ * tails the outbox on its own, so a change made through any instance reaches the subscribers of
+ * all of them after commit. The outbox id is the SSE id: a client that reconnects with
+ * {@code Last-Event-ID} gets the events it missed from a ring buffer of recent ones, or a
+ * {@code reset} event when they are no longer there and the list has to be fetched again.
+ * A project that changes hands reaches its new owner as the event itself and its previous
+ * owner as a {@code DELETED} event with the same id.
+ * <p>
+ * An idle subscriber costs its emitter and an empty queue; no thread is held while waiting.
+ * Each frame is serialized once and shared by every subscriber it goes to.
+ */
+@Slf4j
+@Service
+public class ProjectEventHub {
+
+	private static final Set<DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("ping").build();
+	private static final Set<DataWithMediaType> RESET = SseEmitter.event().name("reset").data("{}", MediaType.APPLICATION_JSON).build();
+
+	private final OutboxService outbox;
+	private final ObjectMapper objectMapper;
+	private final ThreadPoolExecutor senders;
+	private final Counter dropped;
+	private final Map<Long, Set<SseSubscriber>> subscribers = new ConcurrentHashMap<>();
+	private final AtomicInteger subscriberCount = new AtomicInteger();
+	private final Frame[] replay;
+	private final int maxSubscribers;
+
+	@Value("${api.project.events.timeout:30m}")
+	private Duration timeout;
+
+	@Value("${api.project.events.queue-capacity:256}")
+	private int queueCapacity;
+
+	@Value("${api.project.events.poll-batch-size:500}")
+	private int pollBatchSize;
+
+	//Protegidos pelo lock de replay
+	private int replayNext;
+	private long replayFloor;
+	private volatile long position;
+
+	public ProjectEventHub(OutboxService outbox, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+			@Value("${api.project.events.replay-size:1024}") int replaySize,
+			@Value("${api.project.events.sender-threads:4}") int senderThreads,
+			@Value("${api.project.events.max-subscribers:50000}") int maxSubscribers) {
+		this.outbox = outbox;
+		this.objectMapper = objectMapper;
+		this.replay = new Frame[Math.max(1, replaySize)];
+		this.maxSubscribers = maxSubscribers;
+		//Cada assinante tem no maximo uma tarefa pendente, entao a fila comporta todos
+		this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(Math.max(1, maxSubscribers)), new CustomizableThreadFactory("project-events-"),
+				new ThreadPoolExecutor.AbortPolicy());
+		ExecutorServiceMetrics.monitor(meterRegistry, senders, "project-events");
+		this.dropped = Counter.builder("project.events.dropped")
+				.description("Subscribers closed because their queue was full")
+				.register(meterRegistry);
+		Gauge.builder("project.events.subscribers", subscriberCount, AtomicInteger::get)
+				.description("Open project event streams")
+				.register(meterRegistry);
+	}
+
+	@PostConstruct
+	void start() {
+		position = outbox.lastId();
+		replayFloor = position;
+	}
+
+	public SseEmitter subscribe(Long userId, String lastEventId) {
+		if(subscriberCount.incrementAndGet() > maxSubscribers) {
+			subscriberCount.decrementAndGet();
+			throw new TooManyRequests("Too many open event streams. Try again shortly.", Duration.ofSeconds(30));
+		}
+		Long lastSeen = parse(lastEventId);
+		SseEmitter emitter = new SseEmitter(timeout.toMillis());
+		SseSubscriber subscriber = new SseSubscriber(emitter, queueCapacity, lastSeen == null ? 0L : lastSeen, senders,
+				closed -> unsubscribe(userId, closed));
+		synchronized(replay) {
+			//Registro e replay sob o mesmo lock da publicacao: nada se perde nem chega fora de ordem
+			subscribers.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+			if(lastSeen != null) {
+				if(lastSeen < replayFloor) {
+					subscriber.prime(0L, RESET);
+				} else {
+					replaySince(userId, lastSeen, subscriber);
+				}
+			}
+		}
+		return emitter;
+	}
+
+	@Scheduled(fixedDelayString = "${api.project.events.poll-interval:PT0.5S}")
+	public void poll() {
+		List<ChangeEventDTO> events;
+		do {
+			events = outbox.readAfter(position, pollBatchSize);
+			for(ChangeEventDTO event : events) {
+				if(event.aggregate() == AggregateType.PROJECT) publish(event);
+			}
+			if(!events.isEmpty()) position = events.get(events.size() - 1).id();
+		} while(events.size() == pollBatchSize);
+	}
+
+	@Scheduled(fixedRateString = "${api.project.events.heartbeat-interval:PT15S}")
+	public void heartbeat() {
+		//Comentario SSE: mantem proxies abertos e descobre conexoes mortas
+		subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.offer(0L, HEARTBEAT)));
+	}
+
+	public int subscriberCount() {
+		return subscriberCount.get();
+	}
+
+	@PreDestroy
+	void shutdown() {
+		subscribers.values().forEach(set -> List.copyOf(set).forEach(SseSubscriber::close));
+		senders.shutdownNow();
+	}
+
+	private void publish(ChangeEventDTO event) {
+		JsonNode payload = read(event.payload());
+		Long userId = longField(payload, "userId");
+		if(userId == null) return;
+		Long previousUser = longField(payload, "previousUserId");
+		synchronized(replay) {
+			deliver(event.id(), userId, frame(event.id(), event.type().name(), event.payload()));
+			//Quem perdeu o projeto o ve sair da lista, como numa exclusao
+			if(previousUser != null && !previousUser.equals(userId)) {
+				deliver(event.id(), previousUser, frame(event.id(), ChangeType.DELETED.name(), event.payload()));
+			}
+		}
+	}
+
+	//Chamado sob o lock de replay
+	private void deliver(long id, Long userId, Set<DataWithMediaType> frame) {
+		Frame evicted = replay[replayNext];
+		if(evicted != null) replayFloor = evicted.id();
+		replay[replayNext] = new Frame(id, userId, frame);
+		replayNext = (replayNext + 1) % replay.length;
+		Set<SseSubscriber> targets = subscribers.get(userId);
+		if(targets == null) return;
+		for(SseSubscriber subscriber : targets) {
+			if(!subscriber.offer(id, frame)) dropped.increment();
+		}
+	}
+
+	private static Set<DataWithMediaType> frame(long id, String name, String payload) {
+		return SseEmitter.event()
+				.id(Long.toString(id))
+				.name(name)
+				.data(payload, MediaType.APPLICATION_JSON)
+				.build();
+	}
+
+	private void replaySince(Long userId, long lastSeen, SseSubscriber subscriber) {
+		//Do mais antigo ao mais novo
+		for(int i = 0; i < replay.length; i++) {
+			Frame frame = replay[(replayNext + i) % replay.length];
+			if(frame != null && frame.id() > lastSeen && frame.userId().equals(userId)) subscriber.prime(frame.id(), frame.data());
+		}
+	}
+
+	private void unsubscribe(Long userId, SseSubscriber subscriber) {
+		subscribers.computeIfPresent(userId, (id, set) -> {
+			if(set.remove(subscriber)) subscriberCount.decrementAndGet();
+			return set.isEmpty() ? null : set;
+		});
+	}
+
+	private JsonNode read(String payload) {
+		if(payload == null) return null;
+		try {
+			return objectMapper.readTree(payload);
+		} catch(IOException e) {
+			log.warn("Unreadable project change payload: {}", e.getMessage());
+			return null;
+		}
+	}
+
+	private static Long longField(JsonNode payload, String name) {
+		JsonNode value = payload == null ? null : payload.get(name);
+		return value == null || value.isNull() ? null : value.asLong();
+	}
+
+	private static Long parse(String lastEventId) {
+		if(lastEventId == null || lastEventId.isBlank()) return null;
+		try {
+			return Long.parseLong(lastEventId.trim());
+		} catch(NumberFormatException e) {
+			//Id que nao e desta api: trata como atrasado demais
+			return -1L;
+		}
+	}
+
+	private record Frame(long id, Long userId, Set<DataWithMediaType> data) { }
+}
@@ -1,46 +1,134 @@
 package projeto.redes2.project.service;
 
-import java.lang.reflect.Field;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.http.server.ServletServerHttpRequest;
 import org.springframework.stereotype.Service;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.ReflectionUtils;
-import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import projeto.redes2.project.core.cache.TwoTierCache;
+import projeto.redes2.project.core.http.ETags;
+import projeto.redes2.project.core.patch.PatchEngine;
+import projeto.redes2.project.core.search.FullTextQuery;
 import projeto.redes2.project.dto.ProjectDTO;
+import projeto.redes2.project.dto.ProjectListVersion;
+import projeto.redes2.project.dto.ProjectPageDTO;
+import projeto.redes2.project.dto.ProjectSearchDTO;
+import projeto.redes2.project.enums.AggregateType;
+import projeto.redes2.project.enums.ChangeType;
+import projeto.redes2.project.enums.ProjectSort;
 import projeto.redes2.project.exception.EntityAlreadyExists;
 import projeto.redes2.project.exception.EntityInUse;
 import projeto.redes2.project.exception.EntityNotFound;
 import projeto.redes2.project.exception.EntityNotFoundInTheAppeal;
+import projeto.redes2.project.exception.PreconditionFailed;
 import projeto.redes2.project.model.Project;
 import projeto.redes2.project.model.User;
 import projeto.redes2.project.repository.ProjectRepository;
 import projeto.redes2.project.repository.UserRepository;
 
+@Timed(value = "app.service", description = "Service method latency")
 @Service
 @RequiredArgsConstructor
 public class ProjectService {
 	
 	private final ProjectRepository repository;
 	private final UserRepository userRepository;
-	private Field field;
+	private final ObjectMapper objectMapper;
+	private final PatchEngine patchEngine;
+	private final TwoTierCache<User> userCache;
+	private final TwoTierCache<ProjectDTO> projectCache;
+	private final ProjectStatsService stats;
+	private final OutboxService outbox;
 	
-	public List<ProjectDTO> all(Long userID){
-		userRepository.findById(userID).orElseThrow(() -> new EntityNotFoundInTheAppeal(String.format("User with id %d is not registered.", userID)));
-		return repository.allProjects(userID).stream().map(ProjectDTO::fromEntity).collect(Collectors.toList());
+	@Value("${api.project.page.default-size:50}")
+	private int defaultPageSize;
+	
+	@Value("${api.project.page.max-size:500}")
+	private int maxPageSize;
+	
+	@Transactional(readOnly = true)
+	public ProjectPageDTO all(Long userID, Long after, Integer size){
+		checkUser(userID);
+		int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+		
+		//Busca um a mais so para saber se existe proxima pagina
+		List<ProjectDTO> projects = repository.allProjects(userID, after == null ? 0L : after, Limit.of(pageSize + 1));
+		if(projects.size() <= pageSize) {
+			return new ProjectPageDTO(projects, null);
+		}
+		List<ProjectDTO> content = projects.subList(0, pageSize);
+		return new ProjectPageDTO(content, content.get(pageSize - 1).id());
+	}
+	
+	@Transactional(readOnly = true)
+	public String listETag(Long userID, MediaType representation) {
+		checkUser(userID);
+		ProjectListVersion version = repository.listVersion(userID);
+		return ETags.ofList(version.count(), version.versionSum(), version.idSum(), representation);
+	}
+	
+	public void checkUser(Long userID) {
+		userCache.get(userID, userRepository::findById).orElseThrow(() -> new EntityNotFoundInTheAppeal(String.format("User with id %d is not registered.", userID)));
+	}
+	
+	@Transactional(readOnly = true)
+	public void stream(Long userID, OutputStream out) throws IOException {
+		ObjectWriter writer = objectMapper.writerFor(ProjectDTO.class);
+		try(Stream<ProjectDTO> projects = repository.streamProjects(userID)) {
+			Iterator<ProjectDTO> iterator = projects.iterator();
+			while(iterator.hasNext()) {
+				out.write(writer.writeValueAsBytes(iterator.next()));
+				out.write('\n');
+			}
+		}
+	}
+	
+	@Transactional(readOnly = true)
+	public Slice<ProjectDTO> search(ProjectSearchDTO search) {
+		checkUser(search.user());
+		int pageSize = search.size() == null ? defaultPageSize : Math.max(1, Math.min(search.size(), maxPageSize));
+		int page = search.page() == null ? 0 : search.page();
+		String terms = FullTextQuery.of(search.q(), search.prefix());
+		ProjectSort sort = search.sort() != null ? search.sort() : ProjectSort.RELEVANCE;
+		Sort.Direction direction = search.direction() != null ? search.direction() : Sort.Direction.ASC;
+		
+		//Sem texto nao ha relevancia, a ordem cai para o id
+		if(sort == ProjectSort.RELEVANCE && terms != null) {
+			return repository.searchTextByRelevance(search.user(), search.situation(), terms, PageRequest.of(page, pageSize));
+		}
+		//id desempata nomes iguais entre paginas
+		Pageable pageable = PageRequest.of(page, pageSize, sort == ProjectSort.NAME
+				? Sort.by(direction, "name").and(Sort.by("id"))
+				: Sort.by(direction, "id"));
+		return terms == null
+				? repository.search(search.user(), search.situation(), pageable)
+				: repository.searchText(search.user(), search.situation(), terms, pageable);
 	}
 	
+	@Transactional(readOnly = true)
 	public ProjectDTO getProject(Long id){
-		return ProjectDTO.fromEntity(find(id));
+		return projectCache.get(id, repository::findProjectById).orElseThrow(() -> new EntityNotFoundInTheAppeal(String.format("Project with id %d is not registered.", id)));
 	}
 
 	public Project find(Long id) {
@@ -48,7 +136,7 @@ public class ProjectService {
 	}
 	
 	public User findUser(Long id) {
-		return userRepository.findById(id).orElseThrow(() -> new EntityNotFound(String.format("User with id %d is not registered.", id)));
+		return userCache.get(id, userRepository::findById).orElseThrow(() -> new EntityNotFound(String.format("User with id %d is not registered.", id)));
 	}
 	
 	@Transactional
@@ -56,30 +144,29 @@ public class ProjectService {
 		Long userID = p.getUser().getId();
 		if(repository.findByName(p.getName(), userID) == null) {		
 			p.setUser(user);
-			return ProjectDTO.fromEntity(repository.saveAndFlush(p));						
+			Project saved = repository.saveAndFlush(p);
+			stats.changed(null, null, user.getId(), saved.getSituation());
+			return changed(ChangeType.CREATED, ProjectDTO.fromEntity(saved));
 		}
 		throw new EntityAlreadyExists(String.format("There is already a project called '%s'.", p.getName()));		
 	} 
 	
 	@Transactional
-	public ProjectDTO updatePartial(Map<String, Object> fields, Long id, HttpServletRequest request) {
+	public ProjectDTO updatePartial(Map<String, Object> fields, Long id, String ifMatch, HttpServletRequest request) {
 		try {
 			Project projectDestiny = find(id);
-			
-			ObjectMapper objMapper = new ObjectMapper();
-			//objMapper.configure(DeserializationFeature.FAIL_ON_IGNORED_PROPERTIES, true); Deixando explicito que quando uma propriedade estiver anotada com @JsonIgnore
-																						//  Não é pra aceitar no corpo passado como propriedade.
-			objMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, true); // Se uma propriedade que não existe for passada no corpo
-			Project projectFields = objMapper.convertValue(fields, Project.class);
-			
-			fields.forEach((propertyName, propertyValue) -> {
-				field = ReflectionUtils.findField(Project.class, propertyName);
-				field.setAccessible(true);
-				
-				Object newValue = ReflectionUtils.getField(field, projectFields);	
-				ReflectionUtils.setField(field, projectDestiny, newValue);
-			});	
-			return ProjectDTO.fromEntity(repository.save(projectDestiny));	
+			checkVersion(projectDestiny, ifMatch);
+			Long previousUser = ownerOf(projectDestiny);
+			Boolean previousSituation = projectDestiny.getSituation();
+			patchEngine.merge(fields, projectDestiny, Project.class);
+			if(fields.containsKey("user") && projectDestiny.getUser() != null && projectDestiny.getUser().getId() != null) {
+				//O PATCH traz so o id do dono, sem a versao: usa o usuario carregado, como no PUT
+				projectDestiny.setUser(findUser(projectDestiny.getUser().getId()));
+			}
+			projectCache.invalidate(id);
+			Project saved = repository.saveAndFlush(projectDestiny);
+			stats.changed(previousUser, previousSituation, ownerOf(saved), saved.getSituation());
+			return changed(ProjectDTO.fromEntity(saved), previousUser);
 		} catch (IllegalArgumentException e) {
 			Throwable rootCause = ExceptionUtils.getRootCause(e);
 			throw new HttpMessageNotReadableException(e.getMessage(), rootCause, new ServletServerHttpRequest(request));
@@ -87,8 +174,9 @@ public class ProjectService {
 	}
 	
 	@Transactional
-	public ProjectDTO update(Project projectAtt, Long id) {
+	public ProjectDTO update(Project projectAtt, Long id, String ifMatch) {
 		Project currentProject = find(id);
+		checkVersion(currentProject, ifMatch);
 		Long userID = projectAtt.getUser().getId();
 		Project find = repository.findByName(projectAtt.getName(), userID);
 		
@@ -96,17 +184,57 @@ public class ProjectService {
 			throw new EntityAlreadyExists(String.format("There is already a project called '%s'.", projectAtt.getName()));	
 		}
 		
-		userRepository.findById(userID).orElseThrow(() -> new EntityNotFound(String.format("User with id %d is not registered.", userID)));
-		BeanUtils.copyProperties(projectAtt, currentProject, "id");
+		User user = findUser(userID);
+		Long previousUser = ownerOf(currentProject);
+		Boolean previousSituation = currentProject.getSituation();
+		BeanUtils.copyProperties(projectAtt, currentProject, "id", "version", "user");
+		currentProject.setUser(user);
+		projectCache.invalidate(id);
 		
-		return ProjectDTO.fromEntity(repository.saveAndFlush(currentProject));	
+		Project saved = repository.saveAndFlush(currentProject);
+		stats.changed(previousUser, previousSituation, ownerOf(saved), saved.getSituation());
+		return changed(ProjectDTO.fromEntity(saved), previousUser);
+	}
+	
+	private ProjectDTO changed(ChangeType type, ProjectDTO project) {
+		outbox.append(AggregateType.PROJECT, project.id(), type, project);
+		return project;
+	}
+	
+	private ProjectDTO changed(ProjectDTO project, Long previousUser) {
+		outbox.append(AggregateType.PROJECT, project.id(), ChangeType.UPDATED, updatedPayload(objectMapper, project, previousUser));
+		return project;
+	}
+	
+	/**
+	 * Payload of an UPDATED event. When the project changed hands it also carries
+	 * {@code previousUserId}, so the event can reach the owner who lost it.
+	 */
+	static Object updatedPayload(ObjectMapper objectMapper, ProjectDTO project, Long previousUser) {
+		if(previousUser == null || previousUser.equals(project.userId())) return project;
+		ObjectNode payload = objectMapper.valueToTree(project);
+		payload.put("previousUserId", previousUser);
+		return payload;
+	}
+	
+	private static Long ownerOf(Project project) {
+		return project.getUser() == null ? null : project.getUser().getId();
+	}
+	
+	private void checkVersion(Project project, String ifMatch) {
+		if(!ETags.matches(ifMatch, ETags.of(project.getId(), project.getVersion()))) {
+			throw new PreconditionFailed(String.format("Project with id %d was changed by another request.", project.getId()));
+		}
 	}
 	
 	@Transactional
 	public void delete(Long id) {
 		try {
-			find(id);
+			Project project = find(id);
 			repository.deleteById(id);		
+			projectCache.invalidate(id);
+			stats.changed(ownerOf(project), project.getSituation(), null, null);
+			changed(ChangeType.DELETED, ProjectDTO.fromEntity(project));
 		}catch(DataIntegrityViolationException e) {
 			throw new EntityInUse(String.format("Project with id %d cannot be deleted as it is in use.", id));
 		}
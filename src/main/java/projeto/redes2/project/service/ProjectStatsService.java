@@ -0,0 +1,231 @@
+package projeto.redes2.project.service;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import projeto.redes2.project.core.jdbc.ReadRouting;
+import projeto.redes2.project.dto.ProjectStatsDTO;
+import projeto.redes2.project.model.ProjectStats;
+import projeto.redes2.project.repository.ProjectStatsRepository;
+
+/**
+ * Project counters per user, kept in {@code project_stats} by the same transaction that writes
+ * the projects and mirrored in memory once it commits, so reading them never scans {@code project}.
+ * Each instance reloads the table from time to time to see the writes of the others, and a
+ * reconciliation, one instance at a time, rebuilds the table from {@code project} in case anything
+ * wrote around the services.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProjectStatsService {
+
+	private final ProjectStatsRepository repository;
+	private final JdbcTemplate jdbc;
+
+	private volatile Snapshot snapshot = new Snapshot();
+	private final ReadWriteLock commits = new ReentrantReadWriteLock();
+
+	public ProjectStatsDTO ofUser(Long user) {
+		Counts counts = snapshot.byUser.getOrDefault(user, Counts.ZERO);
+		return ProjectStatsDTO.ofUser(user, counts.total(), counts.active());
+	}
+
+	public ProjectStatsDTO global() {
+		Snapshot current = this.snapshot;
+		Counts counts = current.global.get();
+		return ProjectStatsDTO.global(counts.total(), counts.active(), current.users.get());
+	}
+
+	/**
+	 * One project moved from one owner/situation to another; a {@code null} owner stands for
+	 * a project that did not exist before or does not exist anymore.
+	 */
+	public void changed(Long fromUser, Boolean fromSituation, Long toUser, Boolean toSituation) {
+		record(new Changes().removed(fromUser, fromSituation).added(toUser, toSituation));
+	}
+
+	/**
+	 * Writes the deltas in the current transaction and applies them in memory after it commits.
+	 * The commit and the in-memory update happen under the read side of {@code commits}, so a
+	 * {@link #refresh()} either sees the delta in the table and in the snapshot it replaces, or
+	 * in neither.
+	 */
+	public void record(Changes changes) {
+		Map<Long, long[]> deltas = changes.deltas();
+		if(deltas.isEmpty()) return;
+		//Ordem fixa de usuarios para transacoes concorrentes nao travarem as linhas em ordens diferentes
+		deltas.forEach((user, delta) -> repository.shift(user, delta[0], delta[1]));
+		if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+			commits.readLock().lock();
+			try {
+				apply(deltas);
+			} finally {
+				commits.readLock().unlock();
+			}
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			private boolean locked;
+
+			@Override
+			public void beforeCommit(boolean readOnly) {
+				commits.readLock().lock();
+				locked = true;
+			}
+
+			@Override
+			public void afterCommit() {
+				apply(deltas);
+			}
+
+			@Override
+			public void afterCompletion(int status) {
+				if(locked) commits.readLock().unlock();
+			}
+		});
+	}
+
+	private void apply(Map<Long, long[]> deltas) {
+		Snapshot current = this.snapshot;
+		deltas.forEach((user, delta) -> current.shift(user, delta[0], delta[1]));
+	}
+
+	@PostConstruct
+	@Scheduled(fixedDelayString = "${api.project.stats.refresh-interval:PT30S}",
+			initialDelayString = "${api.project.stats.refresh-interval:PT30S}")
+	public void refresh() {
+		//Do primario: uma replica atrasada desfaria deltas que esta instancia ja aplicou
+		ReadRouting.primary(() -> jdbc.execute((ConnectionCallback<Void>) connection -> {
+			//A conexao vem antes da trava: os commits que esperam a trava ja seguram as suas, e com o
+			//pool esgotado o refresh ficaria o connectionTimeout inteiro parado com todos eles
+			try(Statement statement = connection.createStatement()) {
+				statement.execute("SELECT 1");
+			}
+			//Sem commits desta instancia em andamento: nenhum delta fica so na tabela ou so no snapshot antigo
+			commits.writeLock().lock();
+			try(Statement statement = connection.createStatement();
+					ResultSet rows = statement.executeQuery("SELECT fk_user, total, active FROM project_stats")) {
+				Snapshot loaded = new Snapshot();
+				while(rows.next()) {
+					loaded.shift(rows.getLong("fk_user"), rows.getLong("total"), rows.getLong("active"));
+				}
+				this.snapshot = loaded;
+			} finally {
+				commits.writeLock().unlock();
+			}
+			return null;
+		}));
+	}
+
+	@Scheduled(fixedDelayString = "${api.project.stats.reconcile-interval:PT1H}",
+			initialDelayString = "${api.project.stats.reconcile-interval:PT1H}")
+	@Transactional
+	public void reconcile() {
+		repository.lockReconcile();
+		Map<Long, ProjectStats> before = byUser(repository.findAll());
+		repository.clear();
+		repository.rebuild();
+		Map<Long, ProjectStats> after = byUser(repository.findAll());
+		long drifted = after.entrySet().stream().filter(e -> !e.getValue().equals(before.remove(e.getKey()))).count()
+				+ before.values().stream().filter(stats -> stats.getTotal() != 0).count();
+		if(drifted > 0) {
+			log.warn("Project counters of {} users were out of sync and have been rebuilt", drifted);
+		}
+		afterCommit(this::refresh);
+	}
+
+	private static Map<Long, ProjectStats> byUser(List<ProjectStats> rows) {
+		return rows.stream().collect(Collectors.toMap(ProjectStats::getUserId, Function.identity()));
+	}
+
+	private static void afterCommit(Runnable action) {
+		if(TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					action.run();
+				}
+			});
+		} else {
+			action.run();
+		}
+	}
+
+	/**
+	 * Deltas of several project writes, summed per user.
+	 */
+	public static class Changes {
+
+		private final Map<Long, long[]> deltas = new TreeMap<>();
+
+		public Changes added(Long user, Boolean situation) {
+			return shift(user, 1, situation);
+		}
+
+		public Changes removed(Long user, Boolean situation) {
+			return shift(user, -1, situation);
+		}
+
+		private Changes shift(Long user, int sign, Boolean situation) {
+			if(user == null) return this;
+			long[] delta = deltas.computeIfAbsent(user, key -> new long[2]);
+			delta[0] += sign;
+			if(Boolean.TRUE.equals(situation)) delta[1] += sign;
+			return this;
+		}
+
+		Map<Long, long[]> deltas() {
+			deltas.values().removeIf(delta -> delta[0] == 0 && delta[1] == 0);
+			return deltas;
+		}
+	}
+
+	private record Counts(long total, long active) {
+
+		static final Counts ZERO = new Counts(0, 0);
+
+		Counts plus(long total, long active) {
+			return new Counts(this.total + total, this.active + active);
+		}
+	}
+
+	private static class Snapshot {
+
+		final Map<Long, Counts> byUser = new ConcurrentHashMap<>();
+		final AtomicReference<Counts> global = new AtomicReference<>(Counts.ZERO);
+		//Usuarios com pelo menos um projeto
+		final AtomicLong users = new AtomicLong();
+
+		void shift(Long user, long total, long active) {
+			byUser.compute(Objects.requireNonNull(user), (key, current) -> {
+				Counts before = current == null ? Counts.ZERO : current;
+				Counts after = before.plus(total, active);
+				if(before.total() <= 0 && after.total() > 0) users.incrementAndGet();
+				if(before.total() > 0 && after.total() <= 0) users.decrementAndGet();
+				return after;
+			});
+			global.accumulateAndGet(new Counts(total, active), (a, b) -> a.plus(b.total(), b.active()));
+		}
+	}
+}
@@ -1,37 +1,58 @@
 package projeto.redes2.project.service;
 
-import java.lang.reflect.Field;
 import java.util.Map;
+import jakarta.servlet.http.HttpServletRequest;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.springframework.beans.BeanUtils;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.server.ServletServerHttpRequest;
 import org.springframework.stereotype.Service;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.ReflectionUtils;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import projeto.redes2.project.core.cache.TwoTierCache;
+import projeto.redes2.project.core.http.ETags;
+import projeto.redes2.project.core.patch.PatchEngine;
 import projeto.redes2.project.dto.ResponseDTO;
 import projeto.redes2.project.dto.UserDTO;
+import projeto.redes2.project.enums.AggregateType;
+import projeto.redes2.project.enums.ChangeType;
 import projeto.redes2.project.enums.Roles;
 import projeto.redes2.project.exception.EntityAlreadyExists;
 import projeto.redes2.project.exception.EntityInUse;
 import projeto.redes2.project.exception.EntityNotFoundInTheAppeal;
+import projeto.redes2.project.exception.PreconditionFailed;
 import projeto.redes2.project.model.User;
 import projeto.redes2.project.repository.UserRepository;
-import projeto.redes2.project.security.TokenService;
+import projeto.redes2.project.security.PasswordHasher;
+import projeto.redes2.project.security.PrincipalCache;
+import projeto.redes2.project.security.RefreshTokenService;
 
+@Timed(value = "app.service", description = "Service method latency")
 @Service
 @RequiredArgsConstructor
 public class UserService {
 	
 	private final UserRepository repository;
-	private Field field;
-	private final TokenService tokenService;
-	private final PasswordEncoder passwordEncoder;
+	private final RefreshTokenService refreshTokenService;
+	private final PasswordHasher passwordHasher;
+	private final PrincipalCache principalCache;
+	private final PatchEngine patchEngine;
+	private final TwoTierCache<User> userCache;
+	private final OutboxService outbox;
 
 	public User find(Long id) {
-		return repository.findById(id).orElseThrow(() -> new EntityNotFoundInTheAppeal(String.format("User '%s' not unregistered.", id)));
+		return userCache.get(id, repository::findById).orElseThrow(() -> notFound(id));
+	}
+	
+	//Escritas precisam da entidade gerenciada, nunca da copia em cache
+	private User findManaged(Long id) {
+		return repository.findById(id).orElseThrow(() -> notFound(id));
+	}
+	
+	private EntityNotFoundInTheAppeal notFound(Long id) {
+		return new EntityNotFoundInTheAppeal(String.format("User '%s' not unregistered.", id));
 	}
 
 	@Transactional
@@ -40,51 +61,66 @@ public class UserService {
 			if(repository.findByEmail(user.getEmail()) != null) {
 				throw new EntityAlreadyExists(String.format("Email '%s' is already registered.", user.getEmail()));
 			}
-			user.setPassword(passwordEncoder.encode(user.getPassword()));
+			user.setPassword(passwordHasher.encode(user.getPassword()));
 			user.setRole(Roles.USER.toString());
-			String token = this.tokenService.generateToken(user);
-			var userDTO = UserDTO.fromEntity(repository.save(user));	
-			return new ResponseDTO(userDTO, token);		
+			User saved = repository.save(user);
+			changed(ChangeType.CREATED, UserDTO.fromEntity(saved));
+			//O token leva o id como claim, entao so pode ser gerado depois do save
+			return refreshTokenService.issue(saved);
 		}
 		throw new EntityAlreadyExists(String.format("Name '%s' unavailable.", user.getName()));
 	}
 	
 	@Transactional
-	public UserDTO updatePartial(Map<String, Object> fields, Long id) {
-		User userDestiny = find(id);
-		
-		ObjectMapper objMapper = new ObjectMapper();
-		objMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, true);
-		User userFields = objMapper.convertValue(fields, User.class);
-		
-		fields.forEach((propertyName, propertyValue) -> {
-			field = ReflectionUtils.findField(User.class, propertyName);
-			field.setAccessible(true);
-			
-			Object newValue = ReflectionUtils.getField(field, userFields);	
-			ReflectionUtils.setField(field, userDestiny, newValue);
-		});	
-		return UserDTO.fromEntity(repository.save(userDestiny));
+	public UserDTO updatePartial(Map<String, Object> fields, Long id, String ifMatch, HttpServletRequest request) {
+		try {
+			User userDestiny = findManaged(id);
+			checkVersion(userDestiny, ifMatch);
+			patchEngine.merge(fields, userDestiny, User.class);
+			principalCache.invalidateUser(id);
+			userCache.invalidate(id);
+			return changed(ChangeType.UPDATED, UserDTO.fromEntity(repository.saveAndFlush(userDestiny)));
+		} catch (IllegalArgumentException e) {
+			Throwable rootCause = ExceptionUtils.getRootCause(e);
+			throw new HttpMessageNotReadableException(e.getMessage(), rootCause, new ServletServerHttpRequest(request));
+		}
 	}
 	
 	@Transactional
-	public UserDTO update(User userAtt, Long id) {
-		User currentUser = find(id);
+	public UserDTO update(User userAtt, Long id, String ifMatch) {
+		User currentUser = findManaged(id);
+		checkVersion(currentUser, ifMatch);
 		User find = repository.findByName(userAtt.getName());
 		
 		if(find != null && find.getId() != id) {
 			throw new EntityAlreadyExists(String.format("name '%s' unavailable", userAtt.getName()));
 		}
-		BeanUtils.copyProperties(userAtt, currentUser, "id");
-		return UserDTO.fromEntity(repository.saveAndFlush(currentUser));
+		//role so muda pelo servidor
+		BeanUtils.copyProperties(userAtt, currentUser, "id", "version", "role");
+		principalCache.invalidateUser(id);
+		userCache.invalidate(id);
+		return changed(ChangeType.UPDATED, UserDTO.fromEntity(repository.saveAndFlush(currentUser)));
+	}
+
+	private UserDTO changed(ChangeType type, UserDTO user) {
+		outbox.append(AggregateType.USER, user.id(), type, user);
+		return user;
 	}
 
+	private void checkVersion(User user, String ifMatch) {
+		if(!ETags.matches(ifMatch, ETags.of(user.getId(), user.getVersion()))) {
+			throw new PreconditionFailed(String.format("User with id %d was changed by another request.", user.getId()));
+		}
+	}
+	
 	@Transactional
 	public void delete(Long id) {
-		System.out.println("OPA");
 		try {
-			find(id);
+			User user = findManaged(id);
 			repository.deleteById(id);		
+			principalCache.invalidateUser(id);
+			userCache.invalidate(id);
+			changed(ChangeType.DELETED, UserDTO.fromEntity(user));
 		}catch(DataIntegrityViolationException e) {
 			throw new EntityInUse(String.format("User with id %d cannot be deleted as it is in use.", id));
 		}
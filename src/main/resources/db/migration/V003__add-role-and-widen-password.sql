@@ -0,0 +1,2 @@
+ALTER TABLE `user` ADD COLUMN `role` varchar(20) DEFAULT NULL;
+ALTER TABLE `user` MODIFY `password` varchar(72) NOT NULL;
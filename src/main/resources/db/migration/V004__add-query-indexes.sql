@@ -0,0 +1,8 @@
+-- findByName (nome + dono) e a verificacao de nomes do batch
+CREATE INDEX `idx_project_user_name` ON `project` (`fk_user`, `name`);
+
+-- allProjects/streamProjects: filtra pelo dono e ordena por id, cobrindo as colunas da projecao
+CREATE INDEX `idx_project_user_listing` ON `project` (`fk_user`, `id`, `name`, `situation`, `description`);
+
+-- findByUsername e checkLogin
+CREATE INDEX `idx_user_username` ON `user` (`username`);
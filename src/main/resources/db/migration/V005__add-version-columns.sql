@@ -0,0 +1,6 @@
+ALTER TABLE `project` ADD COLUMN `version` bigint NOT NULL DEFAULT 0;
+ALTER TABLE `user` ADD COLUMN `version` bigint NOT NULL DEFAULT 0;
+
+-- A versao entra no indice da listagem para que o ETag agregado seja calculado so pelo indice
+DROP INDEX `idx_project_user_listing` ON `project`;
+CREATE INDEX `idx_project_user_listing` ON `project` (`fk_user`, `id`, `version`, `name`, `situation`, `description`);
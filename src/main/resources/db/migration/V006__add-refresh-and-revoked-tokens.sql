@@ -0,0 +1,23 @@
+CREATE TABLE `refresh_token` (
+  `id` bigint NOT NULL AUTO_INCREMENT PRIMARY KEY,
+  `token_hash` char(64) NOT NULL UNIQUE,
+  `family` char(36) NOT NULL,
+  `access_jti` char(36) NOT NULL,
+  `fk_user` bigint NOT NULL,
+  `created_at` datetime(6) NOT NULL,
+  `expires_at` datetime(6) NOT NULL,
+  `revoked_at` datetime(6) DEFAULT NULL,
+  CONSTRAINT `fk_refresh_token_user` FOREIGN KEY (`fk_user`) REFERENCES `user` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE INDEX `idx_refresh_token_family` ON `refresh_token` (`family`);
+CREATE INDEX `idx_refresh_token_access_jti` ON `refresh_token` (`access_jti`);
+
+-- Lida incrementalmente (id > ultimo visto) por cada instancia para montar a lista em memoria
+CREATE TABLE `revoked_token` (
+  `id` bigint NOT NULL AUTO_INCREMENT PRIMARY KEY,
+  `jti` char(36) NOT NULL UNIQUE,
+  `expires_at` datetime(6) NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE INDEX `idx_revoked_token_expires_at` ON `revoked_token` (`expires_at`);
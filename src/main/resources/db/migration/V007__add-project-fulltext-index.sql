@@ -0,0 +1,2 @@
+-- Busca de projetos: MATCH(name, description) AGAINST(... IN BOOLEAN MODE)
+CREATE FULLTEXT INDEX `ft_project_name_description` ON `project` (`name`, `description`);
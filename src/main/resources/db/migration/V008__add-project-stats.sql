@@ -0,0 +1,11 @@
+-- Contadores por usuario mantidos na mesma transacao das escritas em project; o total geral e a soma das linhas
+CREATE TABLE `project_stats` (
+  `fk_user` bigint NOT NULL PRIMARY KEY,
+  `total` bigint NOT NULL DEFAULT 0,
+  `active` bigint NOT NULL DEFAULT 0,
+  CONSTRAINT `fk_project_stats_user` FOREIGN KEY (`fk_user`) REFERENCES `user` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+INSERT INTO `project_stats` (`fk_user`, `total`, `active`)
+SELECT `fk_user`, COUNT(*), SUM(CASE WHEN `situation` = TRUE THEN 1 ELSE 0 END) FROM `project`
+WHERE `fk_user` IS NOT NULL GROUP BY `fk_user`;
@@ -0,0 +1,17 @@
+-- Outbox: gravado na mesma transacao da escrita; o id define a ordem de entrega
+CREATE TABLE `outbox_event` (
+  `id` bigint NOT NULL AUTO_INCREMENT PRIMARY KEY,
+  `aggregate_type` varchar(20) NOT NULL,
+  `aggregate_id` bigint NOT NULL,
+  `change_type` varchar(20) NOT NULL,
+  `payload` text,
+  `created_at` datetime(6) NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE INDEX `idx_outbox_event_created_at` ON `outbox_event` (`created_at`);
+
+-- Ultimo evento entregue por destino; a linha e travada enquanto o relay entrega
+CREATE TABLE `outbox_position` (
+  `sink` varchar(50) NOT NULL PRIMARY KEY,
+  `last_id` bigint NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
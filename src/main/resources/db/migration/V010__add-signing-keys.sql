@@ -0,0 +1,9 @@
+-- Chaves JWT trocadas em runtime (/actuator/tokenkeys); cada instancia relê a tabela periodicamente.
+-- Chave aposentada fica com secret nulo e retired_at, inclusive as configuradas no application.properties
+CREATE TABLE `signing_key` (
+  `kid` varchar(64) NOT NULL PRIMARY KEY,
+  `secret` varchar(255) DEFAULT NULL,
+  `active` boolean NOT NULL DEFAULT FALSE,
+  `created_at` datetime(6) NOT NULL,
+  `retired_at` datetime(6) DEFAULT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
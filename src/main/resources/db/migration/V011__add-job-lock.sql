@@ -0,0 +1,6 @@
+-- Linhas de guarda de tarefas agendadas que so uma instancia pode rodar por vez (SELECT ... FOR UPDATE)
+CREATE TABLE `job_lock` (
+  `name` varchar(64) NOT NULL PRIMARY KEY
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+INSERT INTO `job_lock` (`name`) VALUES ('project-stats-reconcile');
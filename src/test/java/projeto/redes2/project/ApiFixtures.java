@@ -0,0 +1,78 @@
+package projeto.redes2.project;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import java.util.UUID;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Users and projects created through the API for the MockMvc tests. The tests share one
+ * in-memory database, so names carry a random {@link #suffix()}; a user's name is also its
+ * username and the local part of its {@code @test.com} email.
+ */
+final class ApiFixtures {
+
+	private static final ObjectMapper JSON = new ObjectMapper();
+
+	private ApiFixtures() { }
+
+	static String suffix() {
+		return UUID.randomUUID().toString().substring(0, 8);
+	}
+
+	static String userBody(String name) {
+		return userBody(name, 22, null);
+	}
+
+	static String userBody(String name, int age, String role) {
+		return String.format("{\"name\":\"%s\",\"age\":%d,\"email\":\"%s@test.com\",\"username\":\"%s\",\"password\":\"password\"%s}",
+				name, age, name, name, role == null ? "" : ",\"role\":\"" + role + "\"");
+	}
+
+	static Account register(MockMvc mvc, String name) throws Exception {
+		return register(mvc, name, userBody(name));
+	}
+
+	static Account register(MockMvc mvc, String name, String body) throws Exception {
+		JsonNode registered = JSON.readTree(mvc.perform(post("/auth/user").contentType(MediaType.APPLICATION_JSON).content(body))
+				.andExpect(status().isCreated()).andReturn().getResponse().getContentAsString());
+		return new Account(registered.get("user").get("id").asLong(), name, registered.get("token").asText(), registered.get("refreshToken").asText());
+	}
+
+	//Papel trocado antes do primeiro uso do token, quando o principal ainda nao esta em cache
+	static Account admin(MockMvc mvc, JdbcTemplate jdbc, String name) throws Exception {
+		Account account = register(mvc, name);
+		jdbc.update("UPDATE user SET role = 'ADMIN' WHERE id = ?", account.id());
+		return account;
+	}
+
+	static String projectBody(String name, String description, boolean situation, long owner) {
+		return String.format("{\"name\":\"%s\",\"description\":\"%s\",\"situation\":%b,\"user\":{\"id\":%d}}", name, description, situation, owner);
+	}
+
+	static long createProject(MockMvc mvc, Account owner, String name) throws Exception {
+		return createProject(mvc, owner, name, "description", true);
+	}
+
+	static long createProject(MockMvc mvc, Account owner, String name, String description, boolean situation) throws Exception {
+		return JSON.readTree(mvc.perform(post("/project").header(HttpHeaders.AUTHORIZATION, owner.authorization())
+				.contentType(MediaType.APPLICATION_JSON).content(projectBody(name, description, situation, owner.id())))
+				.andExpect(status().isCreated()).andReturn().getResponse().getContentAsString()).get("id").asLong();
+	}
+
+	record Account(long id, String name, String token, String refreshToken) {
+
+		String email() {
+			return name + "@test.com";
+		}
+
+		String authorization() {
+			return "Bearer " + token;
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package projeto.redes2.project;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import projeto.redes2.project.ApiFixtures.Account;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConditionalRequestTests {
+
+	@Autowired
+	MockMvc mvc;
+
+	String authorization;
+	long userId;
+	long projectId;
+
+	@BeforeEach
+	void setup() throws Exception {
+		String suffix = ApiFixtures.suffix();
+		Account account = ApiFixtures.register(mvc, "etag-" + suffix);
+		authorization = account.authorization();
+		userId = account.id();
+		projectId = ApiFixtures.createProject(mvc, account, "etag-project-" + suffix);
+	}
+
+	@Test
+	void mustAnswerNotModified_untilProjectChanges() throws Exception {
+		String etag = mvc.perform(get("/project/{id}", projectId).header(HttpHeaders.AUTHORIZATION, authorization))
+				.andExpect(status().isOk()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		String listETag = mvc.perform(get("/project/userProjects/{idUser}", userId).header(HttpHeaders.AUTHORIZATION, authorization))
+				.andExpect(status().isOk()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		mvc.perform(get("/project/{id}", projectId).header(HttpHeaders.AUTHORIZATION, authorization).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified()).andExpect(content().string(""));
+		mvc.perform(get("/project/userProjects/{idUser}", userId).header(HttpHeaders.AUTHORIZATION, authorization).header(HttpHeaders.IF_NONE_MATCH, listETag))
+				.andExpect(status().isNotModified());
+
+		String newETag = mvc.perform(patch("/project/{id}", projectId).header(HttpHeaders.AUTHORIZATION, authorization).header(HttpHeaders.IF_MATCH, etag)
+				.contentType(MediaType.APPLICATION_JSON).content("{\"description\":\"changed\"}"))
+				.andExpect(status().isOk()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertNotEquals(etag, newETag);
+
+		mvc.perform(get("/project/{id}", projectId).header(HttpHeaders.AUTHORIZATION, authorization).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk());
+		mvc.perform(get("/project/userProjects/{idUser}", userId).header(HttpHeaders.AUTHORIZATION, authorization).header(HttpHeaders.IF_NONE_MATCH, listETag))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void mustFailPrecondition_whenIfMatchIsStale() throws Exception {
+		String etag = mvc.perform(get("/project/{id}", projectId).header(HttpHeaders.AUTHORIZATION, authorization))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		mvc.perform(patch("/project/{id}", projectId).header(HttpHeaders.AUTHORIZATION, authorization)
+				.contentType(MediaType.APPLICATION_JSON).content("{\"description\":\"first\"}"))
+				.andExpect(status().isOk());
+
+		mvc.perform(patch("/project/{id}", projectId).header(HttpHeaders.AUTHORIZATION, authorization).header(HttpHeaders.IF_MATCH, etag)
+				.contentType(MediaType.APPLICATION_JSON).content("{\"description\":\"second\"}"))
+				.andExpect(status().isPreconditionFailed());
+	}
+
+	@Test
+	void mustTagEachRepresentationApart() throws Exception {
+		String json = mvc.perform(get("/project/{id}", projectId).header(HttpHeaders.AUTHORIZATION, authorization))
+				.andExpect(status().isOk()).andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT)))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		String cbor = mvc.perform(get("/project/{id}", projectId).header(HttpHeaders.AUTHORIZATION, authorization).accept(MediaType.APPLICATION_CBOR))
+				.andExpect(status().isOk()).andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+				.andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT)))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertNotEquals(json, cbor);
+
+		//Um cache com o corpo JSON nao pode revalidar a copia CBOR, e vice-versa
+		mvc.perform(get("/project/{id}", projectId).header(HttpHeaders.AUTHORIZATION, authorization).accept(MediaType.APPLICATION_CBOR)
+				.header(HttpHeaders.IF_NONE_MATCH, cbor))
+				.andExpect(status().isNotModified()).andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT)));
+		mvc.perform(get("/project/{id}", projectId).header(HttpHeaders.AUTHORIZATION, authorization).header(HttpHeaders.IF_NONE_MATCH, cbor))
+				.andExpect(status().isOk());
+		mvc.perform(get("/project/{id}", projectId).header(HttpHeaders.AUTHORIZATION, authorization).accept(MediaType.APPLICATION_CBOR)
+				.header(HttpHeaders.IF_NONE_MATCH, json))
+				.andExpect(status().isOk());
+
+		String jsonList = mvc.perform(get("/project/userProjects/{idUser}", userId).header(HttpHeaders.AUTHORIZATION, authorization))
+				.andExpect(status().isOk()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		String cborList = mvc.perform(get("/project/userProjects/{idUser}", userId).header(HttpHeaders.AUTHORIZATION, authorization).accept(MediaType.APPLICATION_CBOR))
+				.andExpect(status().isOk()).andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertNotEquals(jsonList, cborList);
+		mvc.perform(get("/project/userProjects/{idUser}", userId).header(HttpHeaders.AUTHORIZATION, authorization).accept(MediaType.APPLICATION_CBOR)
+				.header(HttpHeaders.IF_NONE_MATCH, cborList))
+				.andExpect(status().isNotModified()).andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT)));
+		mvc.perform(get("/project/userProjects/{idUser}", userId).header(HttpHeaders.AUTHORIZATION, authorization).header(HttpHeaders.IF_NONE_MATCH, cborList))
+				.andExpect(status().isOk());
+
+		//A versao e a mesma nas duas representacoes, entao o If-Match aceita qualquer uma
+		mvc.perform(patch("/project/{id}", projectId).header(HttpHeaders.AUTHORIZATION, authorization).header(HttpHeaders.IF_MATCH, cbor)
+				.contentType(MediaType.APPLICATION_JSON).content("{\"description\":\"changed\"}"))
+				.andExpect(status().isOk());
+	}
+}
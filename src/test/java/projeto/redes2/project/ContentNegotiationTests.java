@@ -0,0 +1,97 @@
+package projeto.redes2.project;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import projeto.redes2.project.ApiFixtures.Account;
+import projeto.redes2.project.core.http.ApiMediaTypes;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ContentNegotiationTests {
+
+	@Autowired
+	MockMvc mvc;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@LocalServerPort
+	int port;
+
+	String suffix;
+	String authorization;
+	long userId;
+
+	@BeforeEach
+	void setup() throws Exception {
+		suffix = ApiFixtures.suffix();
+		Account account = ApiFixtures.register(mvc, "formats-" + suffix);
+		authorization = account.authorization();
+		userId = account.id();
+		for(int i = 0; i < 40; i++) {
+			ApiFixtures.createProject(mvc, account, "formats-" + suffix + "-" + i, "description of the project", true);
+		}
+	}
+
+	@Test
+	void mustServeTheSameListInEveryFormat_withJsonByDefault() throws Exception {
+		JsonNode json = objectMapper.readTree(list(MediaType.ALL).andExpect(content().contentType(MediaType.APPLICATION_JSON))
+				.andReturn().getResponse().getContentAsByteArray());
+
+		byte[] cbor = list(MediaType.APPLICATION_CBOR).andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+				.andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+				.andReturn().getResponse().getContentAsByteArray();
+		byte[] smile = list(ApiMediaTypes.APPLICATION_SMILE).andExpect(content().contentType(ApiMediaTypes.APPLICATION_SMILE))
+				.andReturn().getResponse().getContentAsByteArray();
+
+		assertEquals(40, json.size());
+		assertEquals(json, new CBORMapper().readTree(cbor));
+		assertEquals(json, new SmileMapper().readTree(smile));
+	}
+
+	@Test
+	void mustCompressLargeResponses_whenTheClientAcceptsGzip() throws Exception {
+		HttpResponse<byte[]> response = HttpClient.newHttpClient().send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/project/userProjects/" + userId))
+				.header(HttpHeaders.AUTHORIZATION, authorization)
+				.header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+				.build(), HttpResponse.BodyHandlers.ofByteArray());
+
+		assertEquals(200, response.statusCode());
+		assertEquals("gzip", response.headers().firstValue(HttpHeaders.CONTENT_ENCODING).orElse(null));
+		try(var body = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+			assertEquals(40, objectMapper.readTree(body).size());
+		}
+	}
+
+	private ResultActions list(MediaType accept) throws Exception {
+		return mvc.perform(get("/project/userProjects/" + userId).header(HttpHeaders.AUTHORIZATION, authorization).accept(accept))
+				.andExpect(status().isOk());
+	}
+}
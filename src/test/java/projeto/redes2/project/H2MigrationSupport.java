@@ -0,0 +1,104 @@
+package projeto.redes2.project;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.flywaydb.core.api.ResourceProvider;
+import org.flywaydb.core.api.resource.LoadableResource;
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.util.StreamUtils;
+
+/**
+ * Runs the real MySQL migrations on H2 (MODE=MySQL). H2 rejects the inline {@code UNIQUE KEY}
+ * column constraint and FULLTEXT indexes, rewritten on load to {@code UNIQUE} and a plain index.
+ */
+@Configuration
+@Profile("test")
+public class H2MigrationSupport {
+
+	private static final String LOCATION = "db/migration/";
+
+	@Bean
+	FlywayConfigurationCustomizer h2CompatibleMigrations() {
+		return configuration -> configuration.resourceProvider(new H2ResourceProvider());
+	}
+
+	static String toH2(String sql) {
+		return sql.replace("UNIQUE KEY,", "UNIQUE,").replace("CREATE FULLTEXT INDEX", "CREATE INDEX");
+	}
+
+	private static class H2ResourceProvider implements ResourceProvider {
+
+		private final List<LoadableResource> resources = new ArrayList<>();
+
+		H2ResourceProvider() {
+			try {
+				for(Resource resource : new PathMatchingResourcePatternResolver().getResources("classpath*:" + LOCATION + "*.sql")) {
+					resources.add(new H2Resource(resource.getFilename(), StreamUtils.copyToString(resource.getInputStream(), StandardCharsets.UTF_8)));
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		@Override
+		public LoadableResource getResource(String name) {
+			return resources.stream().filter(r -> r.getRelativePath().equals(name)).findFirst().orElse(null);
+		}
+
+		@Override
+		public Collection<LoadableResource> getResources(String prefix, String[] suffixes) {
+			return resources.stream()
+					.filter(r -> r.getFilename().startsWith(prefix))
+					.filter(r -> Arrays.stream(suffixes).anyMatch(r.getFilename()::endsWith))
+					.toList();
+		}
+	}
+
+	private static class H2Resource extends LoadableResource {
+
+		private final String filename;
+		private final String sql;
+
+		H2Resource(String filename, String sql) {
+			this.filename = filename;
+			this.sql = toH2(sql);
+		}
+
+		@Override
+		public Reader read() {
+			return new StringReader(sql);
+		}
+
+		@Override
+		public String getAbsolutePath() {
+			return LOCATION + filename;
+		}
+
+		@Override
+		public String getAbsolutePathOnDisk() {
+			return null;
+		}
+
+		@Override
+		public String getFilename() {
+			return filename;
+		}
+
+		@Override
+		public String getRelativePath() {
+			return filename;
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package projeto.redes2.project;
+
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+@SpringBootTest(properties = {
+		"api.security.login.max-attempts=3",
+		"api.security.rate-limit.enabled=false" })
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class LoginAttemptTests {
+
+	private static final String ATTACKER = "203.0.113.7";
+	private static final String OWNER = "198.51.100.20";
+
+	@Autowired
+	MockMvc mvc;
+
+	String email;
+
+	@BeforeEach
+	void setup() throws Exception {
+		email = ApiFixtures.register(mvc, "attempts-" + ApiFixtures.suffix()).email();
+	}
+
+	@Test
+	void mustLockOutTheAddress_butNotTheOwnerOfTheAccount() throws Exception {
+		for(int i = 0; i < 3; i++) {
+			login(ATTACKER, "wrong-password").andExpect(status().isNotFound());
+		}
+		start(ATTACKER, "password")
+				.andExpect(status().isTooManyRequests())
+				.andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+				.andExpect(jsonPath("$.title").value("Too many requests"));
+
+		login(OWNER, "password").andExpect(status().isOk());
+	}
+
+	@Test
+	void mustForgetTheFailures_afterASuccessfulLogin() throws Exception {
+		for(int i = 0; i < 2; i++) {
+			login(ATTACKER, "wrong-password").andExpect(status().isNotFound());
+		}
+		login(ATTACKER, "password").andExpect(status().isOk());
+
+		//Sem o reset a terceira falha ja travaria o par
+		for(int i = 0; i < 2; i++) {
+			login(ATTACKER, "wrong-password").andExpect(status().isNotFound());
+		}
+		start(ATTACKER, "wrong-password").andExpect(status().is(not(429)));
+	}
+
+	//O hash roda fora da thread da requisicao; a trava responde antes dele
+	private ResultActions login(String address, String password) throws Exception {
+		MvcResult started = start(address, password).andExpect(request().asyncStarted()).andReturn();
+		return mvc.perform(asyncDispatch(started));
+	}
+
+	private ResultActions start(String address, String password) throws Exception {
+		return mvc.perform(post("/auth/login").with(request -> {
+					request.setRemoteAddr(address);
+					return request;
+				}).contentType(MediaType.APPLICATION_JSON)
+				.content(String.format("{\"email\":\"%s\",\"password\":\"%s\"}", email, password)));
+	}
+}
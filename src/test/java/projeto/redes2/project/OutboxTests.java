@@ -0,0 +1,99 @@
+package projeto.redes2.project;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import projeto.redes2.project.ApiFixtures.Account;
+import projeto.redes2.project.core.outbox.InMemoryChangeSink;
+import projeto.redes2.project.dto.ChangeEventDTO;
+import projeto.redes2.project.enums.AggregateType;
+import projeto.redes2.project.enums.ChangeType;
+import projeto.redes2.project.service.OutboxRelay;
+
+@SpringBootTest(properties = {
+		"api.outbox.sinks.memory.enabled=true",
+		"api.outbox.relay.interval=PT1H",
+		"api.outbox.gap-timeout=0s" })
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OutboxTests {
+
+	@Autowired
+	MockMvc mvc;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Autowired
+	OutboxRelay relay;
+
+	@Autowired
+	InMemoryChangeSink sink;
+
+	@Autowired
+	JdbcTemplate jdbc;
+
+	String suffix;
+	Account account;
+	String authorization;
+
+	@BeforeEach
+	void setup() throws Exception {
+		suffix = ApiFixtures.suffix();
+		account = ApiFixtures.register(mvc, "outbox-" + suffix);
+		authorization = account.authorization();
+	}
+
+	@Test
+	void mustRelayProjectChangesInOrder_once() throws Exception {
+		long project = create();
+		mvc.perform(patch("/project/" + project).header(HttpHeaders.AUTHORIZATION, authorization)
+				.contentType(MediaType.APPLICATION_JSON).content("{\"situation\":false}"))
+				.andExpect(status().isOk());
+		mvc.perform(delete("/project/" + project).header(HttpHeaders.AUTHORIZATION, authorization))
+				.andExpect(status().isNoContent());
+
+		relay.drain();
+		relay.drain();
+		List<ChangeEventDTO> events = sink.events().stream()
+				.filter(e -> e.aggregate() == AggregateType.PROJECT && e.aggregateId() == project).toList();
+		assertEquals(List.of(ChangeType.CREATED, ChangeType.UPDATED, ChangeType.DELETED), events.stream().map(ChangeEventDTO::type).toList());
+		assertEquals(false, objectMapper.readTree(events.get(1).payload()).get("situation").asBoolean());
+	}
+
+	@Test
+	void mustServeTheFeedToAdminsOnly() throws Exception {
+		String admin = ApiFixtures.admin(mvc, jdbc, "admin-" + suffix).authorization();
+		long since = jdbc.queryForObject("SELECT MAX(id) FROM outbox_event", Long.class);
+		long project = create();
+
+		mvc.perform(get("/changes").header(HttpHeaders.AUTHORIZATION, authorization).param("since", String.valueOf(since)))
+				.andExpect(status().isForbidden());
+		mvc.perform(get("/changes").header(HttpHeaders.AUTHORIZATION, admin).param("since", String.valueOf(since)))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.changes[*].aggregateId", contains((int) project)))
+				.andExpect(jsonPath("$.changes[0].type").value("CREATED"))
+				.andExpect(jsonPath("$.changes[0].payload.name").value("feed-" + suffix))
+				.andExpect(jsonPath("$.next").value(since + 1));
+	}
+
+	private long create() throws Exception {
+		return ApiFixtures.createProject(mvc, account, "feed-" + suffix);
+	}
+}
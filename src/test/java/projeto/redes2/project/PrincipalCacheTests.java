@@ -0,0 +1,39 @@
+package projeto.redes2.project;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import org.junit.jupiter.api.Test;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import projeto.redes2.project.enums.Roles;
+import projeto.redes2.project.model.User;
+import projeto.redes2.project.security.PrincipalCache;
+
+class PrincipalCacheTests {
+
+	PrincipalCache cache = new PrincipalCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+
+	User user = new User(7L, "cached", 22, "cached@test.com", "cached", "password", Roles.USER.toString(), 0L);
+
+	Instant expiresAt = Instant.now().plus(15, ChronoUnit.MINUTES);
+
+	@Test
+	void mustDropAPut_whenTheUserWasInvalidatedDuringTheLoad() {
+		long stamp = cache.stamp(user.getId());
+		//O update do usuario termina entre a leitura e o put
+		cache.invalidateUser(user.getId());
+		cache.put("token", user, "jti", expiresAt, stamp);
+		assertNull(cache.get("token"));
+
+		cache.put("token", user, "jti", expiresAt, cache.stamp(user.getId()));
+		assertEquals(user, cache.get("token").user());
+	}
+
+	@Test
+	void mustNotCache_tokensWithoutTheUserId() {
+		cache.put("token", user, "jti", expiresAt, cache.stamp(null));
+		assertNull(cache.get("token"));
+	}
+}
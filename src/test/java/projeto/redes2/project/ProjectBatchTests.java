@@ -0,0 +1,137 @@
+package projeto.redes2.project;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import projeto.redes2.project.ApiFixtures.Account;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProjectBatchTests {
+
+	@Autowired
+	MockMvc mvc;
+
+	@Autowired
+	JdbcTemplate jdbc;
+
+	String suffix;
+	Account account;
+
+	@BeforeEach
+	void setup() throws Exception {
+		suffix = ApiFixtures.suffix();
+		account = ApiFixtures.register(mvc, "batch-" + suffix);
+	}
+
+	@Test
+	void mustReportEachOperation_ofAMixedBatch() throws Exception {
+		long updated = ApiFixtures.createProject(mvc, account, "batch-updated-" + suffix);
+		long deleted = ApiFixtures.createProject(mvc, account, "batch-deleted-" + suffix);
+
+		batch(create("batch-created-" + suffix), update(updated, "batch-renamed-" + suffix), delete(deleted))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(3)))
+				.andExpect(jsonPath("$[0].index").value(0))
+				.andExpect(jsonPath("$[0].operation").value("CREATE"))
+				.andExpect(jsonPath("$[0].status").value(201))
+				.andExpect(jsonPath("$[0].id").isNumber())
+				.andExpect(jsonPath("$[1].operation").value("UPDATE"))
+				.andExpect(jsonPath("$[1].id").value(updated))
+				.andExpect(jsonPath("$[1].status").value(200))
+				.andExpect(jsonPath("$[2].operation").value("DELETE"))
+				.andExpect(jsonPath("$[2].id").value(deleted))
+				.andExpect(jsonPath("$[2].status").value(204))
+				.andExpect(jsonPath("$[*].detail").isEmpty());
+
+		assertEquals("batch-renamed-" + suffix, name(updated));
+		assertEquals(0, count("id = " + deleted));
+		assertEquals(1, count("name = 'batch-created-" + suffix + "'"));
+	}
+
+	@Test
+	void mustRejectOperations_thatClashWithinTheBatch() throws Exception {
+		long project = ApiFixtures.createProject(mvc, account, "batch-project-" + suffix);
+		long released = ApiFixtures.createProject(mvc, account, "batch-released-" + suffix);
+
+		batch(create("batch-twin-" + suffix), create("BATCH-TWIN-" + suffix), update(project, "batch-moved-" + suffix), delete(project),
+				update(999_999_999L, "batch-missing-" + suffix), delete(released), create("batch-released-" + suffix))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].status").value(201))
+				.andExpect(jsonPath("$[1].status").value(400))
+				.andExpect(jsonPath("$[1].detail").value("There is already a project called 'BATCH-TWIN-" + suffix + "'."))
+				.andExpect(jsonPath("$[2].status").value(200))
+				.andExpect(jsonPath("$[3].status").value(400))
+				.andExpect(jsonPath("$[3].detail").value("Project with id " + project + " is already changed by operation 2."))
+				.andExpect(jsonPath("$[4].status").value(404))
+				.andExpect(jsonPath("$[4].detail").value("Project with id 999999999 is not registered."))
+				//O nome liberado pelo delete do mesmo batch pode ser reutilizado
+				.andExpect(jsonPath("$[5].status").value(204))
+				.andExpect(jsonPath("$[6].status").value(201));
+
+		assertEquals("batch-moved-" + suffix, name(project));
+		assertEquals(1, count("LOWER(name) = 'batch-twin-" + suffix + "'"));
+	}
+
+	@Test
+	void mustReplayAFailedChunk_andBlameTheOperationTheDatabaseRejected() throws Exception {
+		//O nome e unico na tabela, mas a validacao so compara com os projetos dos donos do batch
+		Account other = ApiFixtures.register(mvc, "batch-other-" + suffix);
+		ApiFixtures.createProject(mvc, other, "batch-taken-" + suffix);
+		long project = ApiFixtures.createProject(mvc, account, "batch-kept-" + suffix);
+
+		batch(create("batch-first-" + suffix), create("batch-taken-" + suffix), update(project, "batch-after-" + suffix))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].status").value(201))
+				.andExpect(jsonPath("$[1].status").value(409))
+				.andExpect(jsonPath("$[1].detail").value("The operation conflicts with data already registered."))
+				.andExpect(jsonPath("$[2].status").value(200));
+
+		assertEquals(1, count("name = 'batch-first-" + suffix + "'"));
+		assertEquals(1, count("name = 'batch-taken-" + suffix + "'"));
+		assertEquals("batch-after-" + suffix, name(project));
+		mvc.perform(get("/project/{id}", project).header(HttpHeaders.AUTHORIZATION, account.authorization()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.name").value("batch-after-" + suffix));
+	}
+
+	private ResultActions batch(String... operations) throws Exception {
+		return mvc.perform(post("/project/batch").header(HttpHeaders.AUTHORIZATION, account.authorization())
+				.contentType(MediaType.APPLICATION_JSON).content("[" + String.join(",", operations) + "]"));
+	}
+
+	private String create(String name) {
+		return String.format("{\"operation\":\"CREATE\",\"name\":\"%s\",\"description\":\"d\",\"situation\":true,\"userId\":%d}", name, account.id());
+	}
+
+	private String update(long id, String name) {
+		return String.format("{\"operation\":\"UPDATE\",\"id\":%d,\"name\":\"%s\",\"description\":\"d\",\"situation\":true,\"userId\":%d}", id, name, account.id());
+	}
+
+	private String delete(long id) {
+		return String.format("{\"operation\":\"DELETE\",\"id\":%d}", id);
+	}
+
+	private String name(long id) {
+		return jdbc.queryForObject("SELECT name FROM project WHERE id = ?", String.class, id);
+	}
+
+	private int count(String condition) {
+		return jdbc.queryForObject("SELECT COUNT(*) FROM project WHERE " + condition, Integer.class);
+	}
+}
@@ -0,0 +1,132 @@
+package projeto.redes2.project;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import projeto.redes2.project.ApiFixtures.Account;
+import projeto.redes2.project.service.ProjectEventHub;
+
+@SpringBootTest(properties = {
+		"api.project.events.poll-interval=PT1H",
+		"api.outbox.relay.interval=PT1H",
+		"api.outbox.gap-timeout=0s" })
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProjectEventTests {
+
+	@Autowired
+	MockMvc mvc;
+
+	@Autowired
+	ProjectEventHub hub;
+
+	@Autowired
+	JdbcTemplate jdbc;
+
+	String suffix;
+	Account account;
+	String authorization;
+	long userId;
+
+	@BeforeEach
+	void setup() throws Exception {
+		suffix = ApiFixtures.suffix();
+		account = ApiFixtures.register(mvc, "events-" + suffix);
+		authorization = account.authorization();
+		userId = account.id();
+		hub.poll();
+	}
+
+	@Test
+	void mustPushChangesAfterCommit_andResumeFromLastEventId() throws Exception {
+		MvcResult stream = subscribe(null);
+		long project = create();
+		long created = lastEventId();
+		mvc.perform(patch("/project/" + project).header(HttpHeaders.AUTHORIZATION, authorization)
+				.contentType(MediaType.APPLICATION_JSON).content("{\"situation\":false}"))
+				.andExpect(status().isOk());
+		hub.poll();
+
+		String events = await(stream, "event:UPDATED");
+		assertTrue(events.contains("id:" + created + "\nevent:CREATED\ndata:{\"id\":" + project), events);
+		assertTrue(events.contains("\"situation\":false"), events);
+
+		//Reconexao: so o que veio depois do id informado
+		String resumed = await(subscribe(String.valueOf(created)), "event:UPDATED");
+		assertFalse(resumed.contains("event:CREATED"), resumed);
+	}
+
+	@Test
+	void mustTellThePreviousOwner_whenTheProjectChangesHands() throws Exception {
+		Account other = ApiFixtures.register(mvc, "events-other-" + suffix);
+		long otherId = other.id();
+		long project = create();
+		hub.poll();
+		MvcResult previousOwner = subscribe(null);
+		MvcResult newOwner = subscribe(otherId, other.authorization(), null);
+
+		mvc.perform(put("/project/" + project).header(HttpHeaders.AUTHORIZATION, authorization).contentType(MediaType.APPLICATION_JSON).content(ApiFixtures.projectBody("events-" + suffix, "description", true, otherId)))
+				.andExpect(status().isOk());
+		hub.poll();
+		long moved = lastEventId();
+
+		String removed = await(previousOwner, "event:DELETED");
+		assertTrue(removed.contains("id:" + moved + "\nevent:DELETED\ndata:{\"id\":" + project), removed);
+		assertTrue(removed.contains("\"previousUserId\":" + userId), removed);
+		assertFalse(removed.contains("event:UPDATED"), removed);
+		String received = await(newOwner, "event:UPDATED");
+		assertTrue(received.contains("id:" + moved + "\nevent:UPDATED\ndata:{\"id\":" + project), received);
+
+		//O replay tambem entrega a saida para quem reconecta
+		await(subscribe(String.valueOf(moved - 1)), "event:DELETED");
+	}
+
+	@Test
+	void mustAskForAReload_whenTheLastEventIdIsNoLongerBuffered() throws Exception {
+		await(subscribe("-1"), "event:reset");
+	}
+
+	private MvcResult subscribe(String lastEventId) throws Exception {
+		return subscribe(userId, authorization, lastEventId);
+	}
+
+	private MvcResult subscribe(long user, String authorization, String lastEventId) throws Exception {
+		var builder = get("/project/userProjects/" + user).header(HttpHeaders.AUTHORIZATION, authorization).accept(MediaType.TEXT_EVENT_STREAM);
+		if(lastEventId != null) builder.header("Last-Event-ID", lastEventId);
+		return mvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+	}
+
+	//Os frames sao escritos pelos threads de envio do hub
+	private static String await(MvcResult stream, String expected) throws Exception {
+		String content = "";
+		for(int i = 0; i < 100 && !content.contains(expected); i++) {
+			Thread.sleep(50);
+			content = stream.getResponse().getContentAsString();
+		}
+		assertTrue(content.contains(expected), content);
+		return content;
+	}
+
+	private long lastEventId() {
+		return jdbc.queryForObject("SELECT MAX(id) FROM outbox_event WHERE aggregate_type = 'PROJECT'", Long.class);
+	}
+
+	private long create() throws Exception {
+		return ApiFixtures.createProject(mvc, account, "events-" + suffix);
+	}
+}
@@ -0,0 +1,78 @@
+package projeto.redes2.project;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import projeto.redes2.project.ApiFixtures.Account;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProjectPatchTests {
+
+	@Autowired
+	MockMvc mvc;
+
+	String suffix;
+	Account owner;
+	long projectId;
+
+	@BeforeEach
+	void setup() throws Exception {
+		suffix = ApiFixtures.suffix();
+		owner = ApiFixtures.register(mvc, "patch-" + suffix);
+		projectId = ApiFixtures.createProject(mvc, owner, "patch-" + suffix);
+	}
+
+	@Test
+	void mustCopyOnlyTheMembersOfThePatch() throws Exception {
+		apply("{\"description\":\"changed\"}")
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.description").value("changed"))
+				.andExpect(jsonPath("$.name").value("patch-" + suffix))
+				.andExpect(jsonPath("$.situation").value(true))
+				.andExpect(jsonPath("$.userId").value(owner.id()));
+	}
+
+	@Test
+	void mustMoveTheProject_whenThePatchNamesAnotherOwner() throws Exception {
+		Account other = ApiFixtures.register(mvc, "patch-other-" + suffix);
+
+		apply(String.format("{\"user\":{\"id\":%d}}", other.id()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.userId").value(other.id()));
+		mvc.perform(get("/project/{id}", projectId).header(HttpHeaders.AUTHORIZATION, owner.authorization()))
+				.andExpect(jsonPath("$.userId").value(other.id()));
+	}
+
+	@Test
+	void mustRejectAnUnknownOwner() throws Exception {
+		//Mesma resposta do PUT: o usuario referenciado nao existe
+		apply("{\"user\":{\"id\":999999}}")
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.detail").value("User with id 999999 is not registered."));
+	}
+
+	@Test
+	void mustRejectUnknownAndServerOnlyMembers() throws Exception {
+		apply("{\"color\":\"blue\"}").andExpect(status().isBadRequest());
+		apply("{\"id\":1}").andExpect(status().isBadRequest());
+		apply("{\"situation\":\"maybe\"}").andExpect(status().isBadRequest());
+	}
+
+	private ResultActions apply(String body) throws Exception {
+		return mvc.perform(patch("/project/{id}", projectId)
+				.header(HttpHeaders.AUTHORIZATION, owner.authorization()).contentType(MediaType.APPLICATION_JSON).content(body));
+	}
+}
@@ -0,0 +1,78 @@
+package projeto.redes2.project;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.Map;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import jakarta.persistence.EntityManagerFactory;
+import projeto.redes2.project.enums.Roles;
+import projeto.redes2.project.model.Project;
+import projeto.redes2.project.model.User;
+import projeto.redes2.project.repository.ProjectRepository;
+import projeto.redes2.project.repository.UserRepository;
+import projeto.redes2.project.service.ProjectService;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProjectQueryCountTests {
+
+	@Autowired
+	ProjectService service;
+	
+	@Autowired
+	ProjectRepository projectRepository;
+	
+	@Autowired
+	UserRepository userRepository;
+	
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+	
+	@Test
+	void mustRunConstantStatements_whenListingProjects() {
+		User owner = userRepository.save(new User(null, "countOwner", 22, "count@test.com", "countOwner", "password", Roles.USER.toString(), null));
+		addProjects(owner, 0, 2);
+		service.checkUser(owner.getId()); //o dono fica no cache nas duas medicoes
+		long fewProjects = statementsToList(owner.getId());
+		
+		addProjects(owner, 2, 50);
+		long manyProjects = statementsToList(owner.getId());
+		
+		assertEquals(fewProjects, manyProjects);
+		assertTrue(manyProjects <= 2, "user check + project projection"); 
+	}
+	
+	@Test
+	void mustReadFromCache_untilProjectIsUpdated() {
+		User owner = userRepository.save(new User(null, "cacheOwner", 22, "cache@test.com", "cacheOwner", "password", Roles.USER.toString(), null));
+		Long id = projectRepository.save(new Project(null, "cache-project", "description", true, owner, null)).getId();
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		
+		service.getProject(id);
+		statistics.clear();
+		service.getProject(id);
+		assertEquals(0, statistics.getPrepareStatementCount());
+		
+		service.updatePartial(Map.of("name", "cache-project-renamed"), id, null, new MockHttpServletRequest());
+		assertEquals("cache-project-renamed", service.getProject(id).name());
+	}
+	
+	private long statementsToList(Long userId) {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		service.all(userId, null, 500);
+		return statistics.getPrepareStatementCount();
+	}
+	
+	private void addProjects(User owner, int from, int to) {
+		for(int i = from; i < to; i++) {
+			projectRepository.save(new Project(null, "count-project-" + i, "description", true, owner, null));
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package projeto.redes2.project;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import projeto.redes2.project.ApiFixtures.Account;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProjectSearchTests {
+
+	@Autowired
+	MockMvc mvc;
+
+	String suffix;
+	Account account;
+	String authorization;
+	long userId;
+
+	@BeforeEach
+	void setup() throws Exception {
+		suffix = ApiFixtures.suffix();
+		account = ApiFixtures.register(mvc, "search-" + suffix);
+		authorization = account.authorization();
+		userId = account.id();
+		create("alpha", "builds rockets", true);
+		create("beta", "rocket engine", false);
+		create("gamma", "garden tools", true);
+	}
+
+	@Test
+	void mustFilterByTextSituationAndPrefix() throws Exception {
+		mvc.perform(get("/project/search").header(HttpHeaders.AUTHORIZATION, authorization)
+				.param("user", String.valueOf(userId)).param("q", "rocket").param("sort", "name"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[*].name", contains("alpha-" + suffix, "beta-" + suffix)));
+		mvc.perform(get("/project/search").header(HttpHeaders.AUTHORIZATION, authorization)
+				.param("user", String.valueOf(userId)).param("q", "rocket").param("situation", "false"))
+				.andExpect(jsonPath("$[*].name", contains("beta-" + suffix)));
+		mvc.perform(get("/project/search").header(HttpHeaders.AUTHORIZATION, authorization)
+				.param("user", String.valueOf(userId)).param("prefix", "gard"))
+				.andExpect(jsonPath("$[*].name", contains("gamma-" + suffix)));
+	}
+
+	@Test
+	void mustSortAndPage() throws Exception {
+		mvc.perform(get("/project/search").header(HttpHeaders.AUTHORIZATION, authorization)
+				.param("user", String.valueOf(userId)).param("sort", "name").param("direction", "desc").param("size", "2"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[*].name", contains("gamma-" + suffix, "beta-" + suffix)))
+				.andExpect(header().string(HttpHeaders.LINK, containsString("page=1")));
+		mvc.perform(get("/project/search").header(HttpHeaders.AUTHORIZATION, authorization)
+				.param("user", String.valueOf(userId)).param("sort", "name").param("direction", "desc").param("size", "2").param("page", "1"))
+				.andExpect(jsonPath("$[*].name", contains("alpha-" + suffix)))
+				.andExpect(header().doesNotExist(HttpHeaders.LINK));
+		mvc.perform(get("/project/search").header(HttpHeaders.AUTHORIZATION, authorization))
+				.andExpect(status().isBadRequest());
+	}
+
+	private void create(String name, String description, boolean situation) throws Exception {
+		ApiFixtures.createProject(mvc, account, name + "-" + suffix, description, situation);
+	}
+}
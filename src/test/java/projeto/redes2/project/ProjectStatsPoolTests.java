@@ -0,0 +1,67 @@
+package projeto.redes2.project;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.sql.Connection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import projeto.redes2.project.enums.Roles;
+import projeto.redes2.project.model.User;
+import projeto.redes2.project.repository.UserRepository;
+import projeto.redes2.project.service.ProjectStatsService;
+
+//Pool de duas conexoes: o teste segura uma e o commit abaixo a outra enquanto o reload espera
+@SpringBootTest(properties = {
+		"spring.datasource.hikari.maximum-pool-size=2",
+		"spring.datasource.hikari.connection-timeout=3000",
+		"api.project.stats.refresh-interval=PT1H",
+		"api.project.events.poll-interval=PT1H",
+		"api.outbox.relay.interval=PT1H" })
+@ActiveProfiles("test")
+class ProjectStatsPoolTests {
+
+	@Autowired
+	ProjectStatsService statsService;
+
+	@Autowired
+	UserRepository userRepository;
+
+	@Autowired
+	TransactionTemplate transactionTemplate;
+
+	@Autowired
+	DataSource dataSource;
+
+	@Test
+	void mustNotStallACommit_whileTheReloadWaitsForAConnection() throws Exception {
+		String suffix = ApiFixtures.suffix();
+		User owner = userRepository.save(new User(null, "pool-" + suffix, 22, "pool-" + suffix + "@test.com", "pool", "password", Roles.USER.toString(), null));
+		CompletableFuture<Void> reload = new CompletableFuture<>();
+		long started;
+		try(Connection held = dataSource.getConnection()) {
+			started = System.nanoTime();
+			transactionTemplate.executeWithoutResult(status -> {
+				statsService.changed(null, null, owner.getId(), true);
+				CompletableFuture.runAsync(statsService::refresh).whenComplete((done, error) -> {
+					if(error != null) reload.completeExceptionally(error); else reload.complete(null);
+				});
+				try {
+					Thread.sleep(300);
+				} catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+		}
+		reload.get(10, TimeUnit.SECONDS);
+
+		//Com a trava antes da conexao, o commit so andaria depois do connectionTimeout do reload
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) < 2_000);
+		assertEquals(1, statsService.ofUser(owner.getId()).total());
+	}
+}
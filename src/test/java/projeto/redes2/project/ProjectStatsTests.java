@@ -0,0 +1,150 @@
+package projeto.redes2.project;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import projeto.redes2.project.ApiFixtures.Account;
+import projeto.redes2.project.service.ProjectStatsService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProjectStatsTests {
+
+	@Autowired
+	MockMvc mvc;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Autowired
+	ProjectStatsService statsService;
+
+	@Autowired
+	JdbcTemplate jdbc;
+
+	@Autowired
+	TransactionTemplate transactionTemplate;
+
+	String suffix;
+	Account account;
+	String authorization;
+	long userId;
+
+	@BeforeEach
+	void setup() throws Exception {
+		suffix = ApiFixtures.suffix();
+		account = ApiFixtures.register(mvc, "stats-" + suffix);
+		authorization = account.authorization();
+		userId = account.id();
+	}
+
+	@Test
+	void mustFollowWritesOfTheServiceAndTheBatch() throws Exception {
+		long globalTotal = global().get("total").asLong();
+		long first = create("first", true);
+		long second = create("second", true);
+		expectUser(2, 2);
+
+		mvc.perform(patch("/project/" + second).header(HttpHeaders.AUTHORIZATION, authorization)
+				.contentType(MediaType.APPLICATION_JSON).content("{\"situation\":false}"))
+				.andExpect(status().isOk());
+		expectUser(2, 1);
+
+		mvc.perform(delete("/project/" + first).header(HttpHeaders.AUTHORIZATION, authorization))
+				.andExpect(status().isNoContent());
+		expectUser(1, 0);
+
+		mvc.perform(post("/project/batch").header(HttpHeaders.AUTHORIZATION, authorization).contentType(MediaType.APPLICATION_JSON).content(String.format(
+				"[{\"operation\":\"CREATE\",\"name\":\"third-%s\",\"description\":\"d\",\"situation\":true,\"userId\":%d},"
+				+ "{\"operation\":\"UPDATE\",\"id\":%d,\"name\":\"second-%s\",\"description\":\"d\",\"situation\":true,\"userId\":%d}]",
+				suffix, userId, second, suffix, userId)))
+				.andExpect(status().isOk());
+		expectUser(2, 2);
+		mvc.perform(get("/project/stats").header(HttpHeaders.AUTHORIZATION, authorization))
+				.andExpect(jsonPath("$.total").value(globalTotal + 2))
+				.andExpect(jsonPath("$.user").doesNotExist());
+	}
+
+	@Test
+	void mustRebuildCountersFromTheProjects() throws Exception {
+		create("first", true);
+		jdbc.update("INSERT INTO project (name, description, situation, fk_user, version) VALUES (?, 'd', false, ?, 0)", "behind-" + suffix, userId);
+		expectUser(1, 1);
+
+		statsService.reconcile();
+		expectUser(2, 1);
+	}
+
+	@Test
+	void mustCountADeltaOnce_whenTheCountersAreReloadedDuringItsCommit() throws Exception {
+		create("first", true);
+		CompletableFuture<Void> reload = new CompletableFuture<>();
+		transactionTemplate.executeWithoutResult(status -> {
+			//Registrada antes do delta: o reload comeca entre o commit e a aplicacao em memoria
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					CompletableFuture.runAsync(statsService::refresh).whenComplete((done, error) -> {
+						if(error != null) reload.completeExceptionally(error); else reload.complete(null);
+					});
+					try {
+						reload.get(200, TimeUnit.MILLISECONDS);
+					} catch(TimeoutException e) {
+						//Esperado: o reload aguarda o fim desta transacao
+					} catch(Exception e) {
+						throw new IllegalStateException(e);
+					}
+				}
+			});
+			statsService.changed(null, null, userId, false);
+		});
+		reload.get(5, TimeUnit.SECONDS);
+		expectUser(2, 1);
+	}
+
+	@Test
+	void mustRejectUnknownUser() throws Exception {
+		mvc.perform(get("/project/stats").header(HttpHeaders.AUTHORIZATION, authorization).param("user", "999999"))
+				.andExpect(status().isNotFound());
+	}
+
+	private JsonNode global() throws Exception {
+		return objectMapper.readTree(mvc.perform(get("/project/stats").header(HttpHeaders.AUTHORIZATION, authorization))
+				.andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+	}
+
+	private void expectUser(long total, long active) throws Exception {
+		mvc.perform(get("/project/stats").header(HttpHeaders.AUTHORIZATION, authorization).param("user", String.valueOf(userId)))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.user").value(userId))
+				.andExpect(jsonPath("$.total").value(total))
+				.andExpect(jsonPath("$.active").value(active))
+				.andExpect(jsonPath("$.inactive").value(total - active));
+	}
+
+	private long create(String name, boolean situation) throws Exception {
+		return ApiFixtures.createProject(mvc, account, name + "-" + suffix, "description", situation);
+	}
+}
@@ -0,0 +1,157 @@
+package projeto.redes2.project;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import projeto.redes2.project.dto.ProjectOperationDTO;
+import projeto.redes2.project.enums.BatchOperation;
+import projeto.redes2.project.enums.Roles;
+import projeto.redes2.project.model.Project;
+import projeto.redes2.project.model.User;
+import projeto.redes2.project.repository.ProjectRepository;
+import projeto.redes2.project.repository.RefreshTokenRepository;
+import projeto.redes2.project.repository.RevokedTokenRepository;
+import projeto.redes2.project.repository.UserRepository;
+import projeto.redes2.project.service.ProjectBatchService;
+
+/**
+ * Runs every repository query, records the SQL that reaches the driver and fails if H2's
+ * EXPLAIN shows a full table scan for any of them.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class QueryPlanTests {
+
+	private static final Set<String> STATEMENTS = ConcurrentHashMap.newKeySet();
+
+	@Autowired
+	ProjectRepository projectRepository;
+
+	@Autowired
+	UserRepository userRepository;
+
+	@Autowired
+	ProjectBatchService batchService;
+
+	@Autowired
+	RefreshTokenRepository refreshTokenRepository;
+
+	@Autowired
+	RevokedTokenRepository revokedTokenRepository;
+
+	@Autowired
+	TransactionTemplate transaction;
+
+	@Autowired
+	DataSource dataSource;
+
+	@Test
+	void mustUseIndexes_forEveryRepositoryQuery() throws Exception {
+		User owner = userRepository.save(new User(null, "planOwner", 22, "plan@test.com", "planOwner", "password", Roles.USER.toString(), null));
+		Project project = projectRepository.save(new Project(null, "plan-project", "description", true, owner, null));
+
+		STATEMENTS.clear();
+		projectRepository.findProjectById(project.getId());
+		projectRepository.allProjects(owner.getId(), 0L, Limit.of(10));
+		transaction.executeWithoutResult(status -> projectRepository.streamProjects(owner.getId()).close());
+		projectRepository.findByName("plan-project", owner.getId());
+		projectRepository.listVersion(owner.getId());
+		projectRepository.search(owner.getId(), true, PageRequest.of(0, 10, Sort.by("name")));
+		projectRepository.searchText(owner.getId(), null, "+plan", PageRequest.of(0, 10, Sort.by("id")));
+		projectRepository.searchTextByRelevance(owner.getId(), true, "+plan*", PageRequest.of(0, 10));
+		userRepository.checkLogin("planOwner", "password");
+		userRepository.findByUsername("planOwner");
+		userRepository.findByName("planOwner");
+		userRepository.findByEmail("plan@test.com");
+		userRepository.updatePassword(owner.getId(), "password", "password");
+		refreshTokenRepository.findByTokenHash("hash");
+		refreshTokenRepository.findByAccessJti("jti");
+		refreshTokenRepository.findByFamily("family");
+		transaction.executeWithoutResult(status -> refreshTokenRepository.revokeFamily("family", Instant.now()));
+		revokedTokenRepository.existsByJti("jti");
+		revokedTokenRepository.findByIdGreaterThanOrderById(0L);
+		revokedTokenRepository.findByExpiresAtAfter(Instant.now());
+		revokedTokenRepository.deleteExpired(Instant.now());
+		batchService.execute(List.of(new ProjectOperationDTO(BatchOperation.UPDATE, project.getId(), "plan-project", "description", true, owner.getId())));
+
+		List<String> scans = new ArrayList<>();
+		try(Connection connection = dataSource.getConnection()) {
+			for(String sql : STATEMENTS) {
+				if(sql.toLowerCase(Locale.ROOT).startsWith("insert")) continue;
+				String plan = explain(connection, sql);
+				if(plan.contains(".tableScan")) scans.add(sql + "\n  " + plan);
+			}
+		}
+		assertFalse(STATEMENTS.isEmpty());
+		assertTrue(scans.isEmpty(), "Full table scans:\n" + String.join("\n", scans));
+	}
+
+	private String explain(Connection connection, String sql) throws Exception {
+		try(PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+			//H2 converte o texto para o tipo de cada coluna, serve para ids, nomes e limites
+			for(int i = 1; i <= statement.getParameterMetaData().getParameterCount(); i++) {
+				statement.setString(i, "1");
+			}
+			try(ResultSet plan = statement.executeQuery()) {
+				StringBuilder text = new StringBuilder();
+				while(plan.next()) text.append(plan.getString(1));
+				return text.toString();
+			}
+		}
+	}
+
+	@TestConfiguration
+	static class StatementCapture {
+
+		@Bean
+		static BeanPostProcessor capturingDataSource() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					if(!(bean instanceof DataSource target)) return bean;
+					return new DelegatingDataSource(target) {
+						@Override
+						public Connection getConnection() throws java.sql.SQLException {
+							return capture(super.getConnection());
+						}
+					};
+				}
+			};
+		}
+
+		private static Connection capture(Connection connection) {
+			return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+				if(method.getName().equals("prepareStatement") && args[0] instanceof String sql && !sql.startsWith("EXPLAIN")) {
+					STATEMENTS.add(sql);
+				}
+				try {
+					return method.invoke(connection, args);
+				} catch(java.lang.reflect.InvocationTargetException e) {
+					throw e.getCause();
+				}
+			});
+		}
+	}
+}
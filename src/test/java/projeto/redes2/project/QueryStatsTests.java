@@ -0,0 +1,99 @@
+package projeto.redes2.project;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import projeto.redes2.project.core.jdbc.QueryStats;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class QueryStatsTests {
+
+	@Autowired
+	MockMvc mvc;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	AsyncTaskExecutor taskExecutor;
+
+	String email;
+
+	@BeforeEach
+	void setup() throws Exception {
+		email = ApiFixtures.register(mvc, "stats-" + ApiFixtures.suffix()).email();
+	}
+
+	@Test
+	void mustCountStatements_thatTheRequestHandsToTheTaskExecutor() throws Exception {
+		QueryStats stats = QueryStats.open();
+		try {
+			//Mesmo executor dos resultados assincronos do MVC, como o StreamingResponseBody
+			taskExecutor.submit(() -> jdbcTemplate.queryForObject("SELECT 1", Integer.class)).get();
+		} finally {
+			QueryStats.close();
+		}
+		assertEquals(1, stats.statements());
+		assertEquals(1, stats.fetchedRows());
+
+		jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+		assertEquals(1, stats.statements(), "nothing is counted once the unit is closed");
+		assertEquals(1, stats.fetchedRows(), "nothing is counted once the unit is closed");
+	}
+
+	@Test
+	void mustCountTheRowsRead_byEveryStatementOfTheUnit() {
+		QueryStats stats = QueryStats.open();
+		try {
+			jdbcTemplate.queryForList("SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3", Long.class);
+			jdbcTemplate.query("SELECT 1 WHERE 1 = 0", (row, index) -> row);
+			jdbcTemplate.update("UPDATE user SET age = age WHERE email = ?", email);
+		} finally {
+			QueryStats.close();
+		}
+		assertEquals(3, stats.statements());
+		assertEquals(3, stats.fetchedRows());
+		assertEquals(1, stats.rows());
+	}
+
+	@Test
+	void mustCountTheTokenWrites_doneOnThePasswordHashingPool() throws Exception {
+		DistributionSummary rows = DistributionSummary.builder("http.server.requests.rows.affected").baseUnit("rows")
+				.tag("method", "POST").tag("uri", "/auth/login").register(meterRegistry);
+		DistributionSummary fetched = DistributionSummary.builder("http.server.requests.rows.fetched").baseUnit("rows")
+				.tag("method", "POST").tag("uri", "/auth/login").register(meterRegistry);
+		long count = rows.count();
+		double total = rows.totalAmount();
+		long fetchedCount = fetched.count();
+
+		MvcResult login = mvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON)
+				.content(String.format("{\"email\":\"%s\",\"password\":\"password\"}", email)))
+				.andExpect(request().asyncStarted()).andReturn();
+		mvc.perform(asyncDispatch(login)).andExpect(status().isOk());
+
+		assertEquals(count + 1, rows.count());
+		assertTrue(rows.totalAmount() - total >= 1, "the refresh token is stored after the password check");
+		assertEquals(fetchedCount + 1, fetched.count());
+	}
+}
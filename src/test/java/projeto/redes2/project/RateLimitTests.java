@@ -0,0 +1,70 @@
+package projeto.redes2.project;
+
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import projeto.redes2.project.ApiFixtures.Account;
+
+@SpringBootTest(properties = {
+		"api.security.rate-limit.enabled=true",
+		"api.security.rate-limit.default-limit.capacity=3",
+		"api.security.rate-limit.default-limit.period=1h",
+		"api.security.rate-limit.routes[0].method=POST",
+		"api.security.rate-limit.routes[0].pattern=/auth/login",
+		"api.security.rate-limit.routes[0].capacity=2",
+		"api.security.rate-limit.routes[0].period=1h" })
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RateLimitTests {
+
+	@Autowired
+	MockMvc mvc;
+
+	@Test
+	void mustRefuseLoginsFromTheSameAddress_overTheRouteLimit() throws Exception {
+		for(int remaining = 1; remaining >= 0; remaining--) {
+			login("nobody-" + remaining + "@test.com")
+					.andExpect(status().is(not(429)))
+					.andExpect(header().string("RateLimit-Limit", "2"))
+					.andExpect(header().string("RateLimit-Remaining", String.valueOf(remaining)))
+					.andExpect(header().string("RateLimit-Policy", "2;w=3600"));
+		}
+		login("nobody@test.com")
+				.andExpect(status().isTooManyRequests())
+				.andExpect(header().string(HttpHeaders.RETRY_AFTER, "1800"))
+				.andExpect(jsonPath("$.title").value("Too many requests"));
+	}
+
+	@Test
+	void mustLimitAuthenticatedRequestsPerUser() throws Exception {
+		Account account = ApiFixtures.register(mvc, "limit-" + ApiFixtures.suffix());
+		String authorization = account.authorization();
+		String projects = "/project/userProjects/" + account.id();
+
+		//O cadastro gastou do balde do IP, nao do usuario
+		for(int i = 0; i < 3; i++) {
+			mvc.perform(get(projects).header(HttpHeaders.AUTHORIZATION, authorization))
+					.andExpect(status().isOk());
+		}
+		mvc.perform(get(projects).header(HttpHeaders.AUTHORIZATION, authorization))
+				.andExpect(status().isTooManyRequests())
+				.andExpect(header().string("RateLimit-Remaining", "0"));
+	}
+
+	private ResultActions login(String email) throws Exception {
+		return mvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON)
+				.content(String.format("{\"email\":\"%s\",\"password\":\"wrong-password\"}", email)));
+	}
+}
@@ -0,0 +1,116 @@
+package projeto.redes2.project;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.UUID;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import projeto.redes2.project.core.jdbc.ReplicaLagMonitor;
+import projeto.redes2.project.enums.Roles;
+import projeto.redes2.project.model.Project;
+import projeto.redes2.project.model.User;
+import projeto.redes2.project.repository.ProjectRepository;
+import projeto.redes2.project.repository.UserRepository;
+import projeto.redes2.project.service.ProjectService;
+
+/**
+ * Two embedded databases: the usual one of the {@code test} profile as primary and a second
+ * one as replica. The replica gets the same rows under other names, so each read shows
+ * which database answered it.
+ */
+@SpringBootTest(properties = {
+		"api.datasource.replica.url=" + ReadReplicaRoutingTests.REPLICA,
+		"api.datasource.replica.lag-query=SELECT seconds FROM replica_lag",
+		"api.datasource.replica.check-interval=PT1H" })
+@ActiveProfiles("test")
+class ReadReplicaRoutingTests {
+
+	static final String REPLICA = "jdbc:h2:mem:replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1";
+
+	@Autowired
+	ProjectService service;
+
+	@Autowired
+	UserRepository userRepository;
+
+	@Autowired
+	ProjectRepository projectRepository;
+
+	@Autowired
+	ReplicaLagMonitor monitor;
+
+	User owner;
+	Project project;
+
+	@BeforeAll
+	static void replicaSchema() throws Exception {
+		FluentConfiguration configuration = Flyway.configure().dataSource(REPLICA, "sa", "");
+		new H2MigrationSupport().h2CompatibleMigrations().customize(configuration);
+		configuration.load().migrate();
+		replica("CREATE TABLE IF NOT EXISTS replica_lag (seconds int)");
+	}
+
+	@BeforeEach
+	void setup() throws Exception {
+		String suffix = UUID.randomUUID().toString().substring(0, 8);
+		owner = userRepository.save(new User(null, "primary-" + suffix, 22, suffix + "@test.com", "owner", "password", Roles.USER.toString(), null));
+		project = projectRepository.save(new Project(null, "primary-" + suffix, "description", true, owner, null));
+		replica("INSERT INTO user (id, age, email, name, password, username, version) VALUES (?, 22, ?, ?, 'password', 'owner', 0)",
+				owner.getId(), owner.getEmail(), "replica-" + suffix);
+		replica("INSERT INTO project (id, description, name, situation, fk_user, version) VALUES (?, 'description', ?, true, ?, 0)",
+				project.getId(), "replica-" + suffix, owner.getId());
+		lag(0);
+	}
+
+	@Test
+	void mustReadFromTheReplica_untilItLags() throws Exception {
+		assertEquals("replica-", firstProjectName().substring(0, 8));
+
+		lag(60);
+		assertEquals(project.getName(), firstProjectName());
+	}
+
+	@Test
+	void mustReadOwnWrites_fromThePrimary() {
+		assertEquals("replica-", service.getProject(project.getId()).name().substring(0, 8));
+
+		service.updatePartial(Map.of("name", project.getName() + "-renamed"), project.getId(), null, new MockHttpServletRequest());
+		assertEquals(project.getName() + "-renamed", service.getProject(project.getId()).name());
+	}
+
+	private String firstProjectName() {
+		return service.all(owner.getId(), null, 10).content().get(0).name();
+	}
+
+	private void lag(int seconds) throws Exception {
+		replica("DELETE FROM replica_lag");
+		replica("INSERT INTO replica_lag VALUES (?)", seconds);
+		monitor.check();
+	}
+
+	private static void replica(String sql, Object... params) throws Exception {
+		try(Connection connection = DriverManager.getConnection(REPLICA, "sa", "")) {
+			if(params.length == 0) {
+				try(Statement statement = connection.createStatement()) {
+					statement.execute(sql);
+				}
+				return;
+			}
+			try(PreparedStatement statement = connection.prepareStatement(sql)) {
+				for(int i = 0; i < params.length; i++) statement.setObject(i + 1, params[i]);
+				statement.executeUpdate();
+			}
+		}
+	}
+}
@@ -0,0 +1,188 @@
+package projeto.redes2.project;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import projeto.redes2.project.ApiFixtures.Account;
+import projeto.redes2.project.repository.RevokedTokenRepository;
+import projeto.redes2.project.security.TokenRevocationList;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RefreshTokenTests {
+
+	@Autowired
+	MockMvc mvc;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	TransactionTemplate transactionTemplate;
+
+	@Autowired
+	TokenRevocationList revocationList;
+
+	@Autowired
+	RevokedTokenRepository revokedTokenRepository;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	Account session;
+	long userId;
+
+	@BeforeEach
+	void setup() throws Exception {
+		session = ApiFixtures.register(mvc, "refresh-" + ApiFixtures.suffix());
+		userId = session.id();
+	}
+
+	@Test
+	void mustRevokeTheFamily_whenARotatedRefreshTokenIsReused() throws Exception {
+		JsonNode rotated = refresh(session.refreshToken());
+		assertNotEquals(session.refreshToken(), rotated.get("refreshToken").asText());
+		mvc.perform(get("/project/userProjects/{idUser}", userId).header(HttpHeaders.AUTHORIZATION, "Bearer " + rotated.get("token").asText()))
+				.andExpect(status().isOk());
+
+		mvc.perform(post("/auth/refresh").contentType(MediaType.APPLICATION_JSON).content(body(session.refreshToken())))
+				.andExpect(status().isUnauthorized());
+		mvc.perform(get("/project/userProjects/{idUser}", userId).header(HttpHeaders.AUTHORIZATION, "Bearer " + rotated.get("token").asText()))
+				.andExpect(status().isForbidden());
+		mvc.perform(post("/auth/refresh").contentType(MediaType.APPLICATION_JSON).content(body(rotated.get("refreshToken").asText())))
+				.andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void mustRejectTheAccessToken_afterLogout() throws Exception {
+		String authorization = session.authorization();
+		mvc.perform(get("/project/userProjects/{idUser}", userId).header(HttpHeaders.AUTHORIZATION, authorization))
+				.andExpect(status().isOk());
+
+		mvc.perform(post("/auth/logout").header(HttpHeaders.AUTHORIZATION, authorization))
+				.andExpect(status().isNoContent());
+		mvc.perform(get("/project/userProjects/{idUser}", userId).header(HttpHeaders.AUTHORIZATION, authorization))
+				.andExpect(status().isForbidden());
+		mvc.perform(post("/auth/validate").header(HttpHeaders.AUTHORIZATION, authorization))
+				.andExpect(status().isUnauthorized());
+		mvc.perform(post("/auth/refresh").contentType(MediaType.APPLICATION_JSON).content(body(session.refreshToken())))
+				.andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void mustPickUpARevocation_thatCommitsAfterAHigherId() throws Exception {
+		revocationList.refresh();
+		long base = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM revoked_token", Long.class);
+		String first = UUID.randomUUID().toString();
+		String second = UUID.randomUUID().toString();
+		Timestamp expiresAt = Timestamp.from(Instant.now().plus(1, ChronoUnit.HOURS));
+		try {
+			//O id mais alto fica visivel antes do mais baixo, como em dois commits fora de ordem
+			jdbcTemplate.update("INSERT INTO revoked_token (id, jti, expires_at) VALUES (?, ?, ?)", base + 2, second, expiresAt);
+			revocationList.refresh();
+			assertTrue(revocationList.isRevoked(second));
+
+			jdbcTemplate.update("INSERT INTO revoked_token (id, jti, expires_at) VALUES (?, ?, ?)", base + 1, first, expiresAt);
+			revocationList.refresh();
+			assertTrue(revocationList.isRevoked(first));
+		} finally {
+			jdbcTemplate.update("DELETE FROM revoked_token WHERE jti IN (?, ?)", first, second);
+		}
+	}
+
+	@Test
+	void mustKeepAWideGapAsOneRange_andSplitItWhenAnIdShowsUp() throws Exception {
+		revocationList.refresh();
+		long base = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM revoked_token", Long.class);
+		double gaps = meterRegistry.get("security.revocation.gaps").gauge().value();
+		String high = UUID.randomUUID().toString();
+		String middle = UUID.randomUUID().toString();
+		Timestamp expiresAt = Timestamp.from(Instant.now().plus(1, ChronoUnit.HOURS));
+		try {
+			jdbcTemplate.update("INSERT INTO revoked_token (id, jti, expires_at) VALUES (?, ?, ?)", base + 1_000, high, expiresAt);
+			revocationList.refresh();
+			assertEquals(gaps + 1, meterRegistry.get("security.revocation.gaps").gauge().value());
+
+			jdbcTemplate.update("INSERT INTO revoked_token (id, jti, expires_at) VALUES (?, ?, ?)", base + 500, middle, expiresAt);
+			revocationList.refresh();
+			assertTrue(revocationList.isRevoked(middle));
+			assertEquals(gaps + 2, meterRegistry.get("security.revocation.gaps").gauge().value());
+		} finally {
+			jdbcTemplate.update("DELETE FROM revoked_token WHERE jti IN (?, ?)", high, middle);
+		}
+	}
+
+	@Test
+	void mustNotTrackTheExpiredIds_deletedAtStartup() {
+		long base = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM revoked_token", Long.class);
+		String expired = UUID.randomUUID().toString();
+		String next = UUID.randomUUID().toString();
+		jdbcTemplate.update("INSERT INTO revoked_token (id, jti, expires_at) VALUES (?, ?, ?)", base + 10, expired,
+				Timestamp.from(Instant.now().minus(1, ChronoUnit.HOURS)));
+		try {
+			//Uma instancia nova, como depois de um restart: o rebuild apaga a linha expirada
+			MeterRegistry registry = new SimpleMeterRegistry();
+			TokenRevocationList restarted = new TokenRevocationList(revokedTokenRepository, registry, 1_000, 0.01, Duration.ofMinutes(1));
+			restarted.rebuild();
+			jdbcTemplate.update("INSERT INTO revoked_token (id, jti, expires_at) VALUES (?, ?, ?)", base + 11, next,
+					Timestamp.from(Instant.now().plus(1, ChronoUnit.HOURS)));
+			restarted.refresh();
+
+			assertTrue(restarted.isRevoked(next));
+			assertEquals(0, registry.get("security.revocation.gaps").gauge().value());
+		} finally {
+			jdbcTemplate.update("DELETE FROM revoked_token WHERE jti IN (?, ?)", expired, next);
+		}
+	}
+
+	@Test
+	void mustNotRevoke_whenTheTransactionRollsBack() {
+		String tokenId = UUID.randomUUID().toString();
+		transactionTemplate.executeWithoutResult(status -> {
+			revocationList.revoke(tokenId, Instant.now().plus(1, ChronoUnit.HOURS));
+			status.setRollbackOnly();
+		});
+		assertFalse(revocationList.isRevoked(tokenId));
+	}
+
+	private JsonNode refresh(String refreshToken) throws Exception {
+		return json(mvc.perform(post("/auth/refresh").contentType(MediaType.APPLICATION_JSON).content(body(refreshToken)))
+				.andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+	}
+
+	private static String body(String refreshToken) {
+		return String.format("{\"refreshToken\":\"%s\"}", refreshToken);
+	}
+
+	private JsonNode json(String body) throws Exception {
+		return objectMapper.readTree(body);
+	}
+}
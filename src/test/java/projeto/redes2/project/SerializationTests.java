@@ -0,0 +1,46 @@
+package projeto.redes2.project;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.test.context.ActiveProfiles;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import projeto.redes2.project.dto.ProjectDTO;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SerializationTests {
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Autowired
+	MappingJackson2CborHttpMessageConverter cborConverter;
+
+	@Autowired
+	MappingJackson2SmileHttpMessageConverter smileConverter;
+
+	@Test
+	void mustInstallBlackbird_withTheSpringJacksonSettings_inEveryFormat() {
+		Object blackbird = new BlackbirdModule().getTypeId();
+		for(ObjectMapper mapper : List.of(objectMapper, cborConverter.getObjectMapper(), smileConverter.getObjectMapper())) {
+			assertTrue(mapper.getRegisteredModuleIds().contains(blackbird), mapper.getFactory().getFormatName());
+			//spring.jackson.deserialization.fail-on-unknown-properties=true
+			assertTrue(mapper.isEnabled(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES), mapper.getFactory().getFormatName());
+		}
+	}
+
+	@Test
+	void mustWriteTheDtosAsBefore() throws Exception {
+		ProjectDTO project = new ProjectDTO(1L, "name", "description", true, 2L, 3L);
+		assertEquals("{\"id\":1,\"name\":\"name\",\"description\":\"description\",\"situation\":true,\"userId\":2}", objectMapper.writeValueAsString(project));
+		assertEquals(new ProjectDTO(1L, "name", "description", true, 2L, null), cborConverter.getObjectMapper().readValue(cborConverter.getObjectMapper().writeValueAsBytes(project), ProjectDTO.class));
+	}
+}
@@ -0,0 +1,79 @@
+package projeto.redes2.project;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import com.auth0.jwt.JWT;
+import projeto.redes2.project.repository.UserRepository;
+import projeto.redes2.project.security.SigningKeys;
+import projeto.redes2.project.security.TokenService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TokenKeysTests {
+
+	@Autowired
+	MockMvc mvc;
+
+	@Autowired
+	JdbcTemplate jdbc;
+
+	@Autowired
+	TokenService tokenService;
+
+	@Autowired
+	SigningKeys signingKeys;
+
+	@Autowired
+	UserRepository userRepository;
+
+	@AfterEach
+	void restoreKeys() {
+		jdbc.update("DELETE FROM signing_key");
+		signingKeys.refresh();
+	}
+
+	@Test
+	void mustStopAcceptingCachedTokensOfARetiredKey_andKeepTheKeysStored() throws Exception {
+		String suffix = ApiFixtures.suffix();
+		String adminAuthorization = ApiFixtures.admin(mvc, jdbc, "keys-admin-" + suffix).authorization();
+		long userId = ApiFixtures.register(mvc, "keys-" + suffix).id();
+
+		rotate(adminAuthorization, "k2-" + suffix);
+		String token = tokenService.generateToken(userRepository.findById(userId).orElseThrow());
+		assertEquals("k2-" + suffix, JWT.decode(token).getKeyId());
+		mvc.perform(get("/project/userProjects/" + userId).header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+				.andExpect(status().isOk());
+
+		rotate(adminAuthorization, "k3-" + suffix);
+		mvc.perform(delete("/actuator/tokenkeys/k2-" + suffix).header(HttpHeaders.AUTHORIZATION, adminAuthorization))
+				.andExpect(status().isOk());
+
+		mvc.perform(get("/project/userProjects/" + userId).header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+				.andExpect(status().isForbidden());
+		assertEquals("k3-" + suffix, jdbc.queryForObject("SELECT kid FROM signing_key WHERE active = TRUE", String.class));
+		assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM signing_key WHERE kid = ? AND retired_at IS NOT NULL AND secret IS NULL",
+				Integer.class, "k2-" + suffix));
+	}
+
+	private void rotate(String authorization, String keyId) throws Exception {
+		mvc.perform(post("/actuator/tokenkeys").header(HttpHeaders.AUTHORIZATION, authorization).contentType(MediaType.APPLICATION_JSON)
+				.content(String.format("{\"keyId\":\"%s\",\"secret\":\"secret-%s\"}", keyId, keyId)))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.active").value(keyId));
+	}
+}
@@ -0,0 +1,91 @@
+package projeto.redes2.project;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import projeto.redes2.project.ApiFixtures.Account;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TokenValidationTests {
+
+	@Autowired
+	MockMvc mvc;
+
+	@Autowired
+	JdbcTemplate jdbc;
+
+	@Value("${api.security.token.validate.max-batch-size}")
+	int maxBatchSize;
+
+	@Test
+	void mustReturnClaims_fromHeaderAndBody() throws Exception {
+		Account account = ApiFixtures.register(mvc, "token-" + ApiFixtures.suffix());
+		String token = account.token();
+		long userId = account.id();
+
+		mvc.perform(post("/auth/validate").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.valid").value(true))
+				.andExpect(jsonPath("$.id").value(userId))
+				.andExpect(jsonPath("$.email").value(account.email()))
+				.andExpect(jsonPath("$.role").value("USER"));
+		mvc.perform(post("/auth/validate").contentType(MediaType.TEXT_PLAIN).content(token))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.name").value(account.name()));
+
+		mvc.perform(post("/auth/validate/batch").header(HttpHeaders.AUTHORIZATION, service())
+				.contentType(MediaType.APPLICATION_JSON).content("[\"" + token + "\",\"garbage\"]"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].id").value(userId))
+				.andExpect(jsonPath("$[1].valid").value(false))
+				.andExpect(jsonPath("$[1].id").doesNotExist());
+	}
+
+	@Test
+	void mustRefuseTheBatch_toAnonymousCallersAndPlainUsers() throws Exception {
+		String token = ApiFixtures.register(mvc, "batch-" + ApiFixtures.suffix()).token();
+		String batch = "[\"" + token + "\"]";
+
+		mvc.perform(post("/auth/validate/batch").contentType(MediaType.APPLICATION_JSON).content(batch))
+				.andExpect(status().isForbidden());
+		mvc.perform(post("/auth/validate/batch").header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+				.contentType(MediaType.APPLICATION_JSON).content(batch))
+				.andExpect(status().isForbidden());
+	}
+
+	@Test
+	void mustRejectBatches_overTheLimit() throws Exception {
+		String batch = "[" + String.join(",", Collections.nCopies(maxBatchSize + 1, "\"garbage\"")) + "]";
+		mvc.perform(post("/auth/validate/batch").header(HttpHeaders.AUTHORIZATION, service())
+				.contentType(MediaType.APPLICATION_JSON).content(batch))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void mustAnswerUnauthorized_whenTokenIsInvalid() throws Exception {
+		mvc.perform(post("/auth/validate").header(HttpHeaders.AUTHORIZATION, "Bearer garbage"))
+				.andExpect(status().isUnauthorized())
+				.andExpect(header().string(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\""));
+		mvc.perform(post("/auth/validate"))
+				.andExpect(status().isUnauthorized());
+	}
+
+	//Servico integrado
+	private String service() throws Exception {
+		return ApiFixtures.admin(mvc, jdbc, "gateway-" + ApiFixtures.suffix()).authorization();
+	}
+}
@@ -0,0 +1,48 @@
+package projeto.redes2.project;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+import org.junit.jupiter.api.Test;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import projeto.redes2.project.core.cache.TwoTierCache;
+
+class TwoTierCacheTests {
+
+	TwoTierCache<Item> cache = new TwoTierCache<>("items", Item::id, UnaryOperator.identity(), 100,
+			Duration.ofMinutes(5), Duration.ofSeconds(1), new SimpleMeterRegistry());
+
+	AtomicInteger loads = new AtomicInteger();
+
+	@Test
+	void mustNotCacheALoad_thatOverlappedAnInvalidation() {
+		//O writer faz o commit enquanto a leitura ainda esta carregando a linha antiga
+		cache.get(1L, id -> {
+			cache.invalidate(id);
+			return load(id);
+		});
+		cache.get(1L, this::load);
+		cache.get(1L, this::load);
+		assertEquals(2, loads.get(), "only the load after the invalidation is cached");
+	}
+
+	@Test
+	void mustNotCacheALoadBySecondaryKey_thatOverlappedAnInvalidation() {
+		cache.getByKey("email", "item@test.com", Item::email, () -> {
+			cache.invalidate(1L);
+			return load(1L);
+		});
+		cache.getByKey("email", "item@test.com", Item::email, () -> load(1L));
+		cache.getByKey("email", "item@test.com", Item::email, () -> load(1L));
+		assertEquals(2, loads.get(), "only the load after the invalidation is cached");
+	}
+
+	private Optional<Item> load(Long id) {
+		loads.incrementAndGet();
+		return Optional.of(new Item(id, "item@test.com"));
+	}
+
+	record Item(Long id, String email) { }
+}
@@ -0,0 +1,65 @@
+package projeto.redes2.project;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import projeto.redes2.project.ApiFixtures.Account;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserRoleTests {
+
+	@Autowired
+	MockMvc mvc;
+
+	@Autowired
+	JdbcTemplate jdbc;
+
+	String name;
+	String authorization;
+	long userId;
+
+	@BeforeEach
+	void setup() throws Exception {
+		name = "role-" + ApiFixtures.suffix();
+		Account account = ApiFixtures.register(mvc, name, ApiFixtures.userBody(name, 22, "ADMIN"));
+		authorization = account.authorization();
+		userId = account.id();
+	}
+
+	@Test
+	void mustRejectTheRoleInAPatch() throws Exception {
+		mvc.perform(patch("/user/" + userId).header(HttpHeaders.AUTHORIZATION, authorization)
+				.contentType(MediaType.APPLICATION_JSON).content("{\"role\":\"ADMIN\"}"))
+				.andExpect(status().isBadRequest());
+
+		assertEquals("USER", role());
+		mvc.perform(get("/changes").header(HttpHeaders.AUTHORIZATION, authorization)).andExpect(status().isForbidden());
+	}
+
+	@Test
+	void mustIgnoreTheRoleInAPut() throws Exception {
+		mvc.perform(put("/user/" + userId).header(HttpHeaders.AUTHORIZATION, authorization).contentType(MediaType.APPLICATION_JSON).content(ApiFixtures.userBody(name, 23, "ADMIN")))
+				.andExpect(status().isOk());
+
+		assertEquals("USER", role());
+		mvc.perform(get("/changes").header(HttpHeaders.AUTHORIZATION, authorization)).andExpect(status().isForbidden());
+	}
+
+	private String role() {
+		return jdbc.queryForObject("SELECT role FROM user WHERE id = ?", String.class, userId);
+	}
+}
@@ -20,7 +20,7 @@ class UserTests {
 	@Test
 	void mustFail_whenUserWithoutNameIsRegistered() {
 		assertThrows(ConstraintViolationException.class, () -> {
-			User user = new User(null, "Stevens Wendell", 22, "test001@outlook.com", "testUsername001", "testPassword001", Roles.USER.toString());
+			User user = new User(null, "Stevens Wendell", 22, "test001@outlook.com", "testUsername001", "testPassword001", Roles.USER.toString(), null);
 			service.register(user);
 		});
 	}
@@ -28,7 +28,7 @@ class UserTests {
 	@Test
 	void mustFail_whenRegisteredUserWithEmailInUse() {
 		assertThrows(EntityAlreadyExists.class, () -> {
-			User user = new User(null, "testName002", 22, "stevensch10@outlook.com", "testUsername002", "testPassword002", Roles.USER.toString());
+			User user = new User(null, "testName002", 22, "stevensch10@outlook.com", "testUsername002", "testPassword002", Roles.USER.toString(), null);
 			service.register(user);
 		});
 	}